@@ -0,0 +1,78 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.config;
+
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Configuración de las cachés en memoria del microservicio de inventario.
+ */
+@Configuration
+public class InventoryCacheConfig {
+
+    /**
+     * Caché acotada de precios unitarios por código de producto.
+     * <p>
+     * Caffeine carga cada código una sola vez aunque lleguen muchas peticiones a la vez
+     * (las demás esperan esa misma carga), por lo que un producto muy pedido no multiplica
+     * las consultas a la base de datos. Los faltantes de una consulta de varios códigos
+     * se cargan con una sola sentencia. Los productos inexistentes, o sin precio unitario,
+     * no se guardan y se tratan como faltantes.
+     * </p>
+     * <p>
+     * El tamaño máximo y el tiempo de vida se configuran con {@code msvc.cache.unit-prices.*}.
+     * Las estadísticas se publican en las métricas {@code cache.*} con la etiqueta
+     * {@code cache=unitPrices}.
+     * </p>
+     *
+     * @param maximumSize cantidad máxima de productos en caché
+     * @param expireAfterWrite tiempo de vida de cada entrada
+     * @param invetoryRepository repositorio de donde se leen los precios
+     * @param meterRegistry registro donde se publican las estadísticas
+     * @return LoadingCache configurada
+     */
+    @Bean
+    public LoadingCache<String, BigDecimal> unitPriceCache(
+            @Value("${msvc.cache.unit-prices.maximum-size:10000}") long maximumSize,
+            @Value("${msvc.cache.unit-prices.expire-after-write:5m}") Duration expireAfterWrite,
+            InvetoryRepository invetoryRepository,
+            MeterRegistry meterRegistry) {
+
+        LoadingCache<String, BigDecimal> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build(new CacheLoader<>() {
+
+                    @Override
+                    public BigDecimal load(String productCode) {
+                        return invetoryRepository.getUnitPriceByProductCode(productCode).orElse(null);
+                    }
+
+                    @Override
+                    public Map<String, BigDecimal> loadAll(Set<? extends String> productCodes) {
+                        return invetoryRepository.getAllByProductCodes(Set.copyOf(productCodes)).stream()
+                                .filter(inventory -> inventory.getUnitPrice() != null)
+                                .collect(Collectors.toMap(InventoryEntity::getProductCode,
+                                        InventoryEntity::getUnitPrice, (first, second) -> first));
+                    }
+                });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "unitPrices");
+        return cache;
+    }
+}
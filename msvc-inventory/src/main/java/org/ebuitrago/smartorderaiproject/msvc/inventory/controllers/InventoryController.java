@@ -5,6 +5,9 @@ package org.ebuitrago.smartorderaiproject.msvc.inventory.controllers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.InventoryResponseDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.StockItemDto;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.services.useCase.InventoryUseCase;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -13,7 +16,9 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 
 /**
@@ -90,6 +95,21 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Obtiene el precio unitario de varios productos en una sola petición.
+     *
+     * @param productCodes códigos de los productos a consultar.
+     * @return respuesta con el mapa código → precio unitario o mensaje de error.
+     */
+    @PostMapping("/unit-prices-by-products")
+    ResponseEntity<?> getUnitPricesByProductCodes(@RequestBody List<String> productCodes) {
+        try {
+            return ResponseEntity.ok(inventoryUseCase.getUnitPricesByProductCodes(productCodes));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
 
     /**
      * Registra o actualiza un inventario.
@@ -114,6 +134,42 @@ public class InventoryController {
 
     }
 
+    /**
+     * Registra o actualiza en una sola operación el inventario de muchos productos,
+     * por ejemplo para la carga inicial del catálogo.
+     *
+     * @param inventories lista con los datos de los inventarios.
+     * @return respuesta con los inventarios creados/actualizados o mensaje de error.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> saveAll(@RequestBody List<InventoryResponseDto> inventories) {
+
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(inventoryUseCase.createOrUpdateInventories(inventories));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Reparte el stock de un producto caliente en shards para que las compras concurrentes
+     * no esperen todas el bloqueo de la misma fila.
+     *
+     * @param productCode código único del producto.
+     * @param count cantidad de shards ({@code 0} para volver a una sola fila).
+     * @return respuesta con el inventario y su stock total o mensaje de error.
+     */
+    @PutMapping("/{productCode}/shards")
+    public ResponseEntity<?> configureShards(@PathVariable String productCode, @RequestParam Integer count) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.configureShards(productCode, count));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     @PutMapping("/{productCode}/decrement-stock")
     public ResponseEntity<?> decrementStock(@PathVariable String productCode, @RequestParam Integer quantity) {
 
@@ -126,6 +182,108 @@ public class InventoryController {
 
     }
 
+    /**
+     * Descuenta en una sola transacción el stock de varios productos.
+     *
+     * @param items líneas con el código del producto y la cantidad a descontar.
+     * @return respuesta con los inventarios actualizados o mensaje de error.
+     */
+    @PutMapping("/decrement-stock")
+    public ResponseEntity<?> decrementStockBatch(@RequestBody List<StockItemDto> items) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.decrementInventoryBatch(items));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Reintegra en una sola transacción el stock de varios productos.
+     *
+     * @param items líneas con el código del producto y la cantidad a reintegrar.
+     * @return respuesta con los inventarios actualizados o mensaje de error.
+     */
+    @PutMapping("/increment-stock")
+    public ResponseEntity<?> incrementStockBatch(@RequestBody List<StockItemDto> items) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.incrementInventoryBatch(items));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
+
+
+    /**
+     * Reserva stock de varios productos por un tiempo limitado.
+     *
+     * @param request productos a reservar y duración opcional de la reserva.
+     * @return respuesta con la reserva creada (incluye su identificador) o mensaje de error.
+     */
+    @PostMapping("/reservations")
+    public ResponseEntity<?> reserveStock(@RequestBody ReservationRequestDto request) {
+
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED).body(inventoryUseCase.reserveStock(request));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Confirma una reserva, descontando definitivamente su stock.
+     *
+     * @param holdId identificador de la reserva.
+     * @return respuesta con los inventarios actualizados o mensaje de error.
+     */
+    @PutMapping("/reservations/{holdId}/confirm")
+    public ResponseEntity<?> confirmReservation(@PathVariable UUID holdId) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.confirmReservation(holdId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Libera una reserva, devolviendo su stock al disponible.
+     *
+     * @param holdId identificador de la reserva.
+     * @return respuesta con el resultado de la operación o mensaje de error.
+     */
+    @DeleteMapping("/reservations/{holdId}")
+    public ResponseEntity<?> releaseReservation(@PathVariable UUID holdId) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.releaseReservation(holdId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
+
+    /**
+     * Aplica un lote de cambios del catálogo enviado por el outbox de msvc-products.
+     *
+     * @param events cambios del catálogo en el orden en que ocurrieron.
+     * @return respuesta con la cantidad de cambios aplicados y, si uno falló, el motivo.
+     */
+    @PostMapping("/sync-products")
+    public ResponseEntity<?> syncProducts(@RequestBody List<ProductSyncDto> events) {
+
+        try {
+            return ResponseEntity.ok(inventoryUseCase.syncProducts(events));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+    }
 
     /**
      * Reduce en una unidad el stock de un producto por su código.
@@ -13,11 +13,13 @@ import java.util.List;
  */
 @Data
 @Entity
-@Table(name = "inventory")
+@Table(name = "inventory",
+       indexes = @Index(name = "uk_inventory_product_code", columnList = "product_code", unique = true))
 public class InventoryEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_seq")
+    @SequenceGenerator(name = "inventory_seq", sequenceName = "inventory_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "product_code", nullable = false)
@@ -26,6 +28,21 @@ public class InventoryEntity {
     @Column(name = "stock_quantity")
     private Integer stockQuantity;
 
+    /**
+     * Parte del stock apartada por reservas activas. Se mantiene de forma incremental al reservar,
+     * confirmar y liberar, así el stock disponible es {@code stockQuantity - reservedQuantity}
+     * sin sumar las reservas en cada consulta.
+     */
+    @Column(name = "reserved_quantity", nullable = false, columnDefinition = "integer not null default 0")
+    private Integer reservedQuantity = 0;
+
+    /**
+     * Cantidad de shards del producto; {@code 0} si no está marcado como caliente.
+     * Con shards, el stock total es {@code stockQuantity} más la suma de {@link InventoryShardEntity}.
+     */
+    @Column(name = "shard_count", nullable = false, columnDefinition = "integer not null default 0")
+    private Integer shardCount = 0;
+
     @Column(name = "unit_price")
     private BigDecimal unitPrice;
 
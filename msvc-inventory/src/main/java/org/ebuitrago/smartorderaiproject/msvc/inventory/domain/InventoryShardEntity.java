@@ -0,0 +1,47 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain;
+
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Parte del stock de un producto marcado como "caliente" ({@code inventory.shard_count > 0}).
+ * <p>
+ * El stock total del producto es {@code inventory.stock_quantity} más la suma de sus shards.
+ * Cada compra descuenta de un shard distinto, así las compras concurrentes de un mismo
+ * producto no se serializan en una sola fila.
+ * </p>
+ */
+@Data
+@Entity
+@IdClass(InventoryShardEntity.Key.class)
+@Table(name = "inventory_shards")
+public class InventoryShardEntity {
+
+    @Id
+    @Column(name = "product_code")
+    private String productCode;
+
+    @Id
+    private Integer shard;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    /**
+     * Llave compuesta (producto, número de shard).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String productCode;
+
+        private Integer shard;
+    }
+}
@@ -0,0 +1,31 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Cambio del catálogo de msvc-products ya aplicado al inventario, identificado por el id
+ * del evento en el outbox de productos.
+ * <p>
+ * El relay de productos entrega "al menos una vez": si se pierde la respuesta reenvía el lote
+ * completo. Registrar cada id en la misma transacción que su cambio permite descartar los
+ * reenvíos en lugar de volver a sumar stock. Las filas se borran pasado
+ * {@code msvc.inventory.sync.processed-retention}.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "processed_product_events",
+       indexes = @Index(name = "idx_processed_product_events_processed_at", columnList = "processed_at"))
+public class ProcessedProductEventEntity {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "processed_at", nullable = false)
+    private Instant processedAt;
+}
@@ -0,0 +1,43 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Línea de una reserva de stock: la cantidad de un producto apartada hasta {@code expiresAt}.
+ * <p>
+ * Todas las líneas de una misma reserva comparten {@code holdId}. Mientras la reserva está activa
+ * su cantidad se suma a {@code inventory.reserved_quantity}; al confirmarla o liberarla las
+ * líneas se borran.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "stock_holds",
+       indexes = {
+               @Index(name = "idx_stock_holds_hold_id", columnList = "hold_id"),
+               @Index(name = "idx_stock_holds_expires_at", columnList = "expires_at")
+       })
+public class StockHoldEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_holds_seq")
+    @SequenceGenerator(name = "stock_holds_seq", sequenceName = "stock_holds_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "hold_id", nullable = false)
+    private UUID holdId;
+
+    @Column(name = "product_code", nullable = false)
+    private String productCode;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,37 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto;
+
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con un cambio del catálogo de msvc-products que debe reflejarse en el inventario.
+ * <p>
+ * {@code eventType} es PRODUCT_CREATED, PRODUCT_UPDATED o PRODUCT_DELETED;
+ * {@code previousProductCode} solo se usa al actualizar, por si el código cambió.
+ * {@code eventId} es el id del evento en el outbox de productos y permite descartar reenvíos.
+ * </p>
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSyncDto {
+
+    public static final String PRODUCT_CREATED = "PRODUCT_CREATED";
+
+    public static final String PRODUCT_UPDATED = "PRODUCT_UPDATED";
+
+    public static final String PRODUCT_DELETED = "PRODUCT_DELETED";
+
+    private Long eventId;
+
+    private String eventType;
+
+    private String productCode;
+
+    private String previousProductCode;
+
+    private BigDecimal unitPrice;
+
+}
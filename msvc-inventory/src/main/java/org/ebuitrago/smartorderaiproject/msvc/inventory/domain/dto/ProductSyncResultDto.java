@@ -0,0 +1,23 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto;
+
+
+import lombok.*;
+
+/**
+ * DTO con el resultado de aplicar un lote de cambios del catálogo.
+ * <p>
+ * {@code applied} es la cantidad de cambios aplicados desde el inicio del lote (incluidos los
+ * reenvíos ya aplicados antes). Si un cambio no se pudo aplicar, es el siguiente a esos,
+ * {@code error} explica el motivo y los posteriores no se aplicaron, para conservar el orden.
+ * </p>
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSyncResultDto {
+
+    private Integer applied;
+
+    private String error;
+
+}
@@ -0,0 +1,24 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto;
+
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO que representa una reserva de stock activa.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDto {
+
+    private UUID holdId;
+
+    private Instant expiresAt;
+
+    private List<StockItemDto> items;
+
+}
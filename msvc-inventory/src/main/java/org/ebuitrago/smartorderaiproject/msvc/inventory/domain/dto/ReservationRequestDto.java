@@ -0,0 +1,24 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto;
+
+
+import lombok.*;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * DTO con los productos a reservar y, opcionalmente, cuánto debe durar la reserva.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationRequestDto {
+
+    private List<StockItemDto> items;
+
+    /**
+     * Duración de la reserva (ISO-8601, ej: "PT10M"); si se omite se usa la configurada.
+     */
+    private Duration ttl;
+
+}
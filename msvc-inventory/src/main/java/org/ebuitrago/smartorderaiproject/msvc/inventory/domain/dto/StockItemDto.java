@@ -0,0 +1,19 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto;
+
+
+import lombok.*;
+
+/**
+ * DTO que representa una línea de descuento de stock:
+ * el código del producto y la cantidad a descontar.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockItemDto {
+
+    private String productCode;
+
+    private Integer quantity;
+
+}
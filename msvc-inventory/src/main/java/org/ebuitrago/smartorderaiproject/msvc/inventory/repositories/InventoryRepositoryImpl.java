@@ -6,7 +6,9 @@ import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaReposito
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -42,6 +44,95 @@ public class InventoryRepositoryImpl implements InvetoryRepository {
         return inventoryJpaRespository.findUnitPriceByProductCode(productCode);
     }
 
+    @Override
+    public List<InventoryEntity> getAllByProductCodes(Collection<String> productCodes) {
+        return inventoryJpaRespository.findAllByProductCodeIn(productCodes);
+    }
+
+    @Override
+    public int decrementStockIfAvailable(String productCode, Integer quantity) {
+        return inventoryJpaRespository.decrementStockIfAvailable(productCode, quantity);
+    }
+
+    @Override
+    public Optional<Integer> lockStockByProductCode(String productCode) {
+        return inventoryJpaRespository.lockStockByProductCode(productCode);
+    }
+
+    @Override
+    public Optional<InventoryEntity> lockByProductCode(String productCode) {
+        return inventoryJpaRespository.lockByProductCode(productCode);
+    }
+
+    @Override
+    public Optional<InventoryEntity> tryLockByProductCode(String productCode) {
+        return inventoryJpaRespository.tryLockByProductCode(productCode);
+    }
+
+    @Override
+    public List<InventoryEntity> getShardedProducts() {
+        return inventoryJpaRespository.findAllByShardCountGreaterThan(0);
+    }
+
+    @Override
+    public int setShardCount(String productCode, Integer shardCount) {
+        return inventoryJpaRespository.setShardCount(productCode, shardCount);
+    }
+
+    @Override
+    public void setStockQuantity(String productCode, Integer stockQuantity) {
+        inventoryJpaRespository.setStockQuantity(productCode, stockQuantity);
+    }
+
+    @Override
+    public int reserveStock(String productCode, Integer quantity) {
+        return inventoryJpaRespository.reserveStock(productCode, quantity);
+    }
+
+    @Override
+    public int confirmReserved(String productCode, Integer quantity) {
+        return inventoryJpaRespository.confirmReserved(productCode, quantity);
+    }
+
+    @Override
+    public int releaseReserved(String productCode, Integer quantity) {
+        return inventoryJpaRespository.releaseReserved(productCode, quantity);
+    }
+
+    @Override
+    public int incrementStock(String productCode, Integer quantity) {
+        return inventoryJpaRespository.incrementStock(productCode, quantity);
+    }
+
+    @Override
+    public boolean existsByProductCode(String productCode) {
+        return inventoryJpaRespository.existsByProductCode(productCode);
+    }
+
+    @Override
+    public int updateProductData(String productCode, String newProductCode, BigDecimal unitPrice) {
+        return inventoryJpaRespository.updateProductData(productCode, newProductCode, unitPrice);
+    }
+
+    @Override
+    public InventoryEntity upsert(String productCode, Integer stockQuantity, BigDecimal unitPrice) {
+        return inventoryJpaRespository.upsert(productCode, stockQuantity, unitPrice);
+    }
+
+    @Override
+    public List<InventoryEntity> upsertAll(Map<String, Integer> stockByProductCode,
+                                           Map<String, BigDecimal> unitPriceByProductCode) {
+
+        String[] productCodes = stockByProductCode.keySet().toArray(String[]::new);
+        BigDecimal[] unitPrices = new BigDecimal[productCodes.length];
+        for (int i = 0; i < productCodes.length; i++) {
+            unitPrices[i] = unitPriceByProductCode.get(productCodes[i]);
+        }
+
+        return inventoryJpaRespository.upsertAll(productCodes,
+                stockByProductCode.values().toArray(Integer[]::new), unitPrices);
+    }
+
     @Override
     public InventoryEntity save(InventoryEntity newProduct) {
         return inventoryJpaRespository.save(newProduct);
@@ -0,0 +1,78 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryShardEntity;
+
+import java.util.List;
+
+/**
+ * Repositorio de dominio para los shards de stock de los productos calientes.
+ */
+public interface InventoryShardRepository {
+
+    /**
+     * Descuenta de un shard al azar con stock suficiente, saltando los bloqueados.
+     *
+     * @param productCode código único del producto.
+     * @param quantity cantidad a descontar.
+     * @return número de filas actualizadas ({@code 0} si ningún shard libre alcanzaba).
+     */
+    int decrementRandomShard(String productCode, Integer quantity);
+
+    /**
+     * Bloquea todos los shards de un producto.
+     *
+     * @param productCode código único del producto.
+     * @return los shards bloqueados.
+     */
+    List<InventoryShardEntity> lockByProductCode(String productCode);
+
+    /**
+     * Bloquea los shards de un producto que no estén bloqueados por otra transacción.
+     *
+     * @param productCode código único del producto.
+     * @return los shards que se pudieron bloquear.
+     */
+    List<InventoryShardEntity> tryLockByProductCode(String productCode);
+
+    /**
+     * Suma el stock de los shards de un producto.
+     *
+     * @param productCode código único del producto.
+     * @return la suma del stock de los shards.
+     */
+    long sumByProductCode(String productCode);
+
+    /**
+     * Crea los shards que falten hasta {@code shardCount}, con stock cero.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount cantidad de shards.
+     */
+    void createMissing(String productCode, int shardCount);
+
+    /**
+     * Fija el stock de un shard.
+     *
+     * @param productCode código único del producto.
+     * @param shard número del shard.
+     * @param quantity nuevo stock del shard.
+     */
+    void setQuantity(String productCode, Integer shard, Integer quantity);
+
+    /**
+     * Borra los shards con número mayor o igual a {@code shardCount}.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount cantidad de shards que se conservan.
+     */
+    void deleteFrom(String productCode, int shardCount);
+
+    /**
+     * Cambia el código de producto de los shards.
+     *
+     * @param productCode código anterior.
+     * @param newProductCode código nuevo.
+     */
+    void renameProduct(String productCode, String newProductCode);
+}
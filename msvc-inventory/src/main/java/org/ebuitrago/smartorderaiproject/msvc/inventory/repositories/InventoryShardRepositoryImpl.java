@@ -0,0 +1,59 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryShardEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository.InventoryShardJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+
+/**
+ * Implementación del repositorio de shards de stock sobre {@link InventoryShardJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class InventoryShardRepositoryImpl implements InventoryShardRepository {
+
+    private final InventoryShardJpaRepository inventoryShardJpaRepository;
+
+    @Override
+    public int decrementRandomShard(String productCode, Integer quantity) {
+        return inventoryShardJpaRepository.decrementRandomShard(productCode, quantity);
+    }
+
+    @Override
+    public List<InventoryShardEntity> lockByProductCode(String productCode) {
+        return inventoryShardJpaRepository.lockByProductCode(productCode);
+    }
+
+    @Override
+    public List<InventoryShardEntity> tryLockByProductCode(String productCode) {
+        return inventoryShardJpaRepository.tryLockByProductCode(productCode);
+    }
+
+    @Override
+    public long sumByProductCode(String productCode) {
+        return inventoryShardJpaRepository.sumByProductCode(productCode);
+    }
+
+    @Override
+    public void createMissing(String productCode, int shardCount) {
+        inventoryShardJpaRepository.createMissing(productCode, shardCount);
+    }
+
+    @Override
+    public void setQuantity(String productCode, Integer shard, Integer quantity) {
+        inventoryShardJpaRepository.setQuantity(productCode, shard, quantity);
+    }
+
+    @Override
+    public void deleteFrom(String productCode, int shardCount) {
+        inventoryShardJpaRepository.deleteFrom(productCode, shardCount);
+    }
+
+    @Override
+    public void renameProduct(String productCode, String newProductCode) {
+        inventoryShardJpaRepository.renameProduct(productCode, newProductCode);
+    }
+}
@@ -5,7 +5,9 @@ import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
 
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -42,6 +44,137 @@ public interface InvetoryRepository {
 
     Optional<BigDecimal> getUnitPriceByProductCode(String productCode);
 
+    /**
+     * Obtiene en una sola consulta los inventarios de varios productos.
+     *
+     * @param productCodes códigos de los productos a buscar.
+     * @return lista de inventarios encontrados.
+     */
+    List<InventoryEntity> getAllByProductCodes(Collection<String> productCodes);
+
+    /**
+     * Descuenta de forma atómica el stock de un producto si hay existencias suficientes.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a descontar.
+     * @return número de filas actualizadas ({@code 0} si no existe o no hay stock suficiente).
+     */
+    int decrementStockIfAvailable(String productCode, Integer quantity);
+
+    /**
+     * Lee el stock disponible de un producto bloqueando su fila; debe llamarse dentro de una transacción.
+     *
+     * @param productCode código único del producto.
+     * @return el stock disponible, si el producto existe.
+     */
+    Optional<Integer> lockStockByProductCode(String productCode);
+
+    /**
+     * Bloquea la fila de inventario de un producto; debe llamarse dentro de una transacción.
+     *
+     * @param productCode código único del producto.
+     * @return el inventario bloqueado, si existe.
+     */
+    Optional<InventoryEntity> lockByProductCode(String productCode);
+
+    /**
+     * Bloquea la fila de inventario de un producto solo si está libre.
+     *
+     * @param productCode código único del producto.
+     * @return el inventario bloqueado, o vacío si no existe o está ocupado.
+     */
+    Optional<InventoryEntity> tryLockByProductCode(String productCode);
+
+    /**
+     * Obtiene los productos con shards de stock.
+     *
+     * @return los inventarios con {@code shardCount > 0}.
+     */
+    List<InventoryEntity> getShardedProducts();
+
+    /**
+     * Cambia la cantidad de shards de un producto.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount nueva cantidad de shards.
+     * @return número de filas actualizadas ({@code 0} si el producto no existe).
+     */
+    int setShardCount(String productCode, Integer shardCount);
+
+    /**
+     * Fija el stock de la fila principal de un producto.
+     *
+     * @param productCode código único del producto.
+     * @param stockQuantity nuevo stock.
+     */
+    void setStockQuantity(String productCode, Integer stockQuantity);
+
+    /**
+     * Aparta de forma atómica stock para una reserva si hay suficiente disponible.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a reservar.
+     * @return número de filas actualizadas ({@code 0} si no existe o no hay stock disponible).
+     */
+    int reserveStock(String productCode, Integer quantity);
+
+    /**
+     * Descuenta de forma definitiva una cantidad reservada.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad reservada.
+     * @return número de filas actualizadas.
+     */
+    int confirmReserved(String productCode, Integer quantity);
+
+    /**
+     * Libera una cantidad reservada.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad reservada.
+     * @return número de filas actualizadas.
+     */
+    int releaseReserved(String productCode, Integer quantity);
+
+    /**
+     * Reintegra de forma atómica stock descontado previamente.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a reintegrar.
+     * @return número de filas actualizadas ({@code 0} si el producto no existe).
+     */
+    int incrementStock(String productCode, Integer quantity);
+
+    /**
+     * Indica si existe un inventario para el código de producto.
+     *
+     * @param productCode código único del producto.
+     * @return {@code true} si el producto existe.
+     */
+    boolean existsByProductCode(String productCode);
+
+    int updateProductData(String productCode, String newProductCode, BigDecimal unitPrice);
+
+    /**
+     * Crea el inventario de un producto o le suma el stock si ya existe, en una sola sentencia.
+     *
+     * @param productCode código único del producto.
+     * @param stockQuantity stock a registrar o sumar.
+     * @param unitPrice precio unitario, usado solo si el producto es nuevo.
+     * @return el inventario resultante.
+     */
+    InventoryEntity upsert(String productCode, Integer stockQuantity, BigDecimal unitPrice);
+
+    /**
+     * Crea o suma el stock de varios productos en una sola sentencia.
+     *
+     * @param stockByProductCode stock por código de producto, sin códigos repetidos.
+     * @param unitPriceByProductCode precio unitario por código de producto.
+     * @return los inventarios resultantes.
+     */
+    List<InventoryEntity> upsertAll(Map<String, Integer> stockByProductCode,
+                                    Map<String, BigDecimal> unitPriceByProductCode);
+
     /**
      * Guarda un nuevo inventario o actualiza uno existente.
      *
@@ -0,0 +1,27 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+
+import java.time.Instant;
+
+/**
+ * Repositorio de dominio para los cambios del catálogo ya aplicados.
+ */
+public interface ProcessedProductEventRepository {
+
+    /**
+     * Registra un evento como aplicado; debe ejecutarse en la misma transacción que su cambio.
+     *
+     * @param eventId id del evento en el outbox de msvc-products.
+     * @return {@code true} si se registró ahora; {@code false} si ya se había aplicado.
+     */
+    boolean markProcessed(Long eventId);
+
+    /**
+     * Borra un lote de eventos aplicados antes de la fecha indicada.
+     *
+     * @param before fecha límite.
+     * @param limit cantidad máxima de filas a borrar.
+     * @return la cantidad de filas borradas.
+     */
+    int deleteProcessedBefore(Instant before, int limit);
+}
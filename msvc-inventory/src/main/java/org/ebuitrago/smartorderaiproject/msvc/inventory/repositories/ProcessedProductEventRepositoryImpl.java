@@ -0,0 +1,28 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository.ProcessedProductEventJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+
+/**
+ * Implementación del repositorio de cambios del catálogo aplicados sobre {@link ProcessedProductEventJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class ProcessedProductEventRepositoryImpl implements ProcessedProductEventRepository {
+
+    private final ProcessedProductEventJpaRepository processedProductEventJpaRepository;
+
+    @Override
+    public boolean markProcessed(Long eventId) {
+        return processedProductEventJpaRepository.markProcessed(eventId, Instant.now()) > 0;
+    }
+
+    @Override
+    public int deleteProcessedBefore(Instant before, int limit) {
+        return processedProductEventJpaRepository.deleteProcessedBefore(before, limit);
+    }
+}
@@ -0,0 +1,52 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.StockHoldEntity;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio de dominio para las líneas de reserva de stock.
+ */
+public interface StockHoldRepository {
+
+    /**
+     * Guarda las líneas de una reserva.
+     *
+     * @param holds líneas a guardar.
+     * @return las líneas guardadas.
+     */
+    List<StockHoldEntity> saveAll(List<StockHoldEntity> holds);
+
+    /**
+     * Bloquea las líneas de una reserva.
+     *
+     * @param holdId identificador de la reserva.
+     * @return las líneas bloqueadas.
+     */
+    List<StockHoldEntity> lockByHoldId(UUID holdId);
+
+    /**
+     * Bloquea un lote de líneas vencidas, saltando las ya bloqueadas.
+     *
+     * @param limit cantidad máxima de líneas.
+     * @return las líneas bloqueadas.
+     */
+    List<StockHoldEntity> lockExpired(int limit);
+
+    /**
+     * Cambia el código de producto de las reservas activas.
+     *
+     * @param productCode código anterior.
+     * @param newProductCode código nuevo.
+     */
+    void renameProduct(String productCode, String newProductCode);
+
+    /**
+     * Borra en una sola sentencia las líneas indicadas.
+     *
+     * @param holds líneas a borrar.
+     */
+    void deleteAll(List<StockHoldEntity> holds);
+}
@@ -0,0 +1,46 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.StockHoldEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository.StockHoldJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+
+/**
+ * Implementación del repositorio de reservas de stock sobre {@link StockHoldJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class StockHoldRepositoryImpl implements StockHoldRepository {
+
+    private final StockHoldJpaRepository stockHoldJpaRepository;
+
+    @Override
+    public List<StockHoldEntity> saveAll(List<StockHoldEntity> holds) {
+        return stockHoldJpaRepository.saveAll(holds);
+    }
+
+    @Override
+    public List<StockHoldEntity> lockByHoldId(UUID holdId) {
+        return stockHoldJpaRepository.lockByHoldId(holdId);
+    }
+
+    @Override
+    public List<StockHoldEntity> lockExpired(int limit) {
+        return stockHoldJpaRepository.lockExpired(Instant.now(), limit);
+    }
+
+    @Override
+    public void renameProduct(String productCode, String newProductCode) {
+        stockHoldJpaRepository.renameProduct(productCode, newProductCode);
+    }
+
+    @Override
+    public void deleteAll(List<StockHoldEntity> holds) {
+        stockHoldJpaRepository.deleteAllInBatch(holds);
+    }
+}
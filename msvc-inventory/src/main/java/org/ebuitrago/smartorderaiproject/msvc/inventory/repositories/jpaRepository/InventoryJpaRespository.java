@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,10 +37,149 @@ public interface InventoryJpaRespository extends JpaRepository<InventoryEntity,
      */
     Optional<InventoryEntity> findByProductCode(String productCode);
 
+    /**
+     * Busca en una sola consulta los registros de inventario de varios productos.
+     *
+     * @param productCodes códigos de los productos a consultar.
+     * @return lista de inventarios encontrados; los códigos inexistentes se omiten.
+     */
+    List<InventoryEntity> findAllByProductCodeIn(Collection<String> productCodes);
+
 
     @Query("SELECT i.unitPrice FROM InventoryEntity i WHERE i.productCode = :productCode")
     Optional<BigDecimal> findUnitPriceByProductCode(@Param("productCode") String productCode);
 
+    /**
+     * Descuenta el stock de un producto en una sola sentencia, solo si hay
+     * existencias suficientes sin contar las reservadas. La condición y la resta se evalúan en la base de datos,
+     * por lo que no hay ventana de lectura-modificación-escritura entre peticiones concurrentes.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a descontar.
+     * @return número de filas actualizadas: {@code 0} si el producto no existe o no hay stock suficiente.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.stockQuantity = i.stockQuantity - :quantity " +
+            "WHERE i.productCode = :productCode AND i.stockQuantity - i.reservedQuantity >= :quantity")
+    int decrementStockIfAvailable(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Lee el stock disponible (sin las reservas) de un producto bloqueando su fila hasta el fin de la transacción.
+     *
+     * @param productCode código único del producto.
+     * @return el stock disponible, si el producto existe.
+     */
+    @Query(value = "SELECT stock_quantity - reserved_quantity FROM inventory WHERE product_code = :productCode FOR UPDATE",
+            nativeQuery = true)
+    Optional<Integer> lockStockByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Bloquea la fila de inventario de un producto hasta el fin de la transacción.
+     *
+     * @param productCode código único del producto.
+     * @return el inventario bloqueado, si existe.
+     */
+    @Query(value = "SELECT * FROM inventory WHERE product_code = :productCode FOR UPDATE", nativeQuery = true)
+    Optional<InventoryEntity> lockByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Igual que {@link #lockByProductCode}, pero sin esperar: si otra transacción tiene la fila, no devuelve nada.
+     *
+     * @param productCode código único del producto.
+     * @return el inventario bloqueado, o vacío si no existe o está ocupado.
+     */
+    @Query(value = "SELECT * FROM inventory WHERE product_code = :productCode FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    Optional<InventoryEntity> tryLockByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Obtiene los productos marcados como calientes (con shards de stock).
+     *
+     * @param shardCount valor mínimo exclusivo de la cantidad de shards (normalmente {@code 0}).
+     * @return los inventarios con shards.
+     */
+    List<InventoryEntity> findAllByShardCountGreaterThan(Integer shardCount);
+
+    /**
+     * Cambia la cantidad de shards de un producto.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount nueva cantidad de shards.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.shardCount = :shardCount WHERE i.productCode = :productCode")
+    int setShardCount(@Param("productCode") String productCode, @Param("shardCount") Integer shardCount);
+
+    /**
+     * Fija el stock de la fila principal de un producto; se usa al repartir el stock entre shards.
+     *
+     * @param productCode código único del producto.
+     * @param stockQuantity nuevo stock de la fila principal.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.stockQuantity = :stockQuantity WHERE i.productCode = :productCode")
+    int setStockQuantity(@Param("productCode") String productCode, @Param("stockQuantity") Integer stockQuantity);
+
+    /**
+     * Aparta stock para una reserva, solo si hay suficiente disponible, en una sola sentencia.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a reservar.
+     * @return número de filas actualizadas: {@code 0} si el producto no existe o no hay stock disponible.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.reservedQuantity = i.reservedQuantity + :quantity " +
+            "WHERE i.productCode = :productCode AND i.stockQuantity - i.reservedQuantity >= :quantity")
+    int reserveStock(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Convierte en descuento definitivo una cantidad reservada.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad reservada a descontar.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.stockQuantity = i.stockQuantity - :quantity, " +
+            "i.reservedQuantity = i.reservedQuantity - :quantity WHERE i.productCode = :productCode")
+    int confirmReserved(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Devuelve al stock disponible una cantidad reservada.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad reservada a liberar.
+     * @return número de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.reservedQuantity = i.reservedQuantity - :quantity " +
+            "WHERE i.productCode = :productCode")
+    int releaseReserved(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Devuelve al inventario una cantidad descontada previamente, en una sola sentencia.
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a reintegrar.
+     * @return número de filas actualizadas: {@code 0} si el producto no existe.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.stockQuantity = i.stockQuantity + :quantity " +
+            "WHERE i.productCode = :productCode")
+    int incrementStock(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Indica si existe un registro de inventario para el código de producto.
+     *
+     * @param productCode código único del producto.
+     * @return {@code true} si el producto existe.
+     */
+    boolean existsByProductCode(String productCode);
+
     /**
      * Elimina un registro de inventario según el código del producto.
      *
@@ -48,5 +188,63 @@ public interface InventoryJpaRespository extends JpaRepository<InventoryEntity,
     @Transactional
     @Modifying
     void deleteByProductCode(String productCode);
-}
 
+    /**
+     * Actualiza el código y el precio unitario de un producto sin tocar su stock,
+     * para no pisar descuentos concurrentes.
+     *
+     * @param productCode código actual del producto.
+     * @param newProductCode nuevo código del producto (puede ser el mismo).
+     * @param unitPrice nuevo precio unitario.
+     * @return la cantidad de filas actualizadas.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryEntity i SET i.productCode = :newProductCode, i.unitPrice = :unitPrice " +
+            "WHERE i.productCode = :productCode")
+    int updateProductData(@Param("productCode") String productCode,
+                          @Param("newProductCode") String newProductCode,
+                          @Param("unitPrice") BigDecimal unitPrice);
+
+    /**
+     * Crea el inventario de un producto o, si ya existe, le suma el stock, en una sola sentencia.
+     * <p>
+     * El índice único sobre {@code product_code} hace que dos altas concurrentes del mismo
+     * producto terminen en una sola fila con la suma de ambas. El precio unitario solo se
+     * asigna al crear la fila. El id se toma directamente de {@code inventory_seq}, que avanza
+     * de 50 en 50, por lo que nunca choca con los bloques que reserva Hibernate.
+     * </p>
+     *
+     * @param productCode código único del producto.
+     * @param stockQuantity stock inicial o cantidad a sumar.
+     * @param unitPrice precio unitario, usado solo si el producto es nuevo.
+     * @return la fila resultante.
+     */
+    @Query(value = "INSERT INTO inventory (id, product_code, stock_quantity, unit_price) " +
+            "VALUES (nextval('inventory_seq'), :productCode, :stockQuantity, :unitPrice) " +
+            "ON CONFLICT (product_code) DO UPDATE " +
+            "SET stock_quantity = inventory.stock_quantity + EXCLUDED.stock_quantity " +
+            "RETURNING *", nativeQuery = true)
+    InventoryEntity upsert(@Param("productCode") String productCode,
+                           @Param("stockQuantity") Integer stockQuantity,
+                           @Param("unitPrice") BigDecimal unitPrice);
+
+    /**
+     * Variante en bloque de {@link #upsert}: crea o suma el stock de muchos productos en una sola sentencia.
+     * Los códigos no deben repetirse dentro del mismo lote.
+     *
+     * @param productCodes códigos de los productos.
+     * @param stockQuantities stock de cada producto, en el mismo orden.
+     * @param unitPrices precio unitario de cada producto, en el mismo orden.
+     * @return las filas resultantes.
+     */
+    @Query(value = "INSERT INTO inventory (id, product_code, stock_quantity, unit_price) " +
+            "SELECT nextval('inventory_seq'), t.product_code, t.stock_quantity, t.unit_price " +
+            "FROM unnest(CAST(:productCodes AS varchar[]), CAST(:stockQuantities AS integer[]), " +
+            "CAST(:unitPrices AS numeric[])) AS t(product_code, stock_quantity, unit_price) " +
+            "ON CONFLICT (product_code) DO UPDATE " +
+            "SET stock_quantity = inventory.stock_quantity + EXCLUDED.stock_quantity " +
+            "RETURNING *", nativeQuery = true)
+    List<InventoryEntity> upsertAll(@Param("productCodes") String[] productCodes,
+                                    @Param("stockQuantities") Integer[] stockQuantities,
+                                    @Param("unitPrices") BigDecimal[] unitPrices);
+}
@@ -0,0 +1,93 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository;
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryShardEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Repositorio JPA para los shards de stock {@link InventoryShardEntity}.
+ */
+public interface InventoryShardJpaRepository
+        extends JpaRepository<InventoryShardEntity, InventoryShardEntity.Key> {
+
+    /**
+     * Descuenta de un shard elegido al azar entre los que tienen stock suficiente, en una sola sentencia.
+     * {@code SKIP LOCKED} descarta los shards que otra compra está modificando en ese momento,
+     * así las compras concurrentes se reparten entre filas distintas en lugar de esperarse.
+     *
+     * @param productCode código único del producto.
+     * @param quantity cantidad a descontar.
+     * @return {@code 0} si ningún shard libre tenía stock suficiente.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "UPDATE inventory_shards SET quantity = quantity - :quantity " +
+            "WHERE (product_code, shard) = (SELECT s.product_code, s.shard FROM inventory_shards s " +
+            "WHERE s.product_code = :productCode AND s.quantity >= :quantity " +
+            "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED) " +
+            "AND quantity >= :quantity", nativeQuery = true)
+    int decrementRandomShard(@Param("productCode") String productCode, @Param("quantity") Integer quantity);
+
+    /**
+     * Bloquea todos los shards de un producto, en orden de shard.
+     *
+     * @param productCode código único del producto.
+     * @return los shards bloqueados hasta el fin de la transacción.
+     */
+    @Query(value = "SELECT * FROM inventory_shards WHERE product_code = :productCode ORDER BY shard FOR UPDATE",
+            nativeQuery = true)
+    List<InventoryShardEntity> lockByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Bloquea los shards de un producto que no estén bloqueados por otra transacción.
+     *
+     * @param productCode código único del producto.
+     * @return los shards que se pudieron bloquear.
+     */
+    @Query(value = "SELECT * FROM inventory_shards WHERE product_code = :productCode ORDER BY shard " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<InventoryShardEntity> tryLockByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Suma el stock de los shards de un producto.
+     *
+     * @param productCode código único del producto.
+     * @return la suma, o {@code 0} si no tiene shards.
+     */
+    @Query("SELECT COALESCE(SUM(s.quantity), 0) FROM InventoryShardEntity s WHERE s.productCode = :productCode")
+    long sumByProductCode(@Param("productCode") String productCode);
+
+    /**
+     * Crea con stock cero los shards {@code 0..shardCount-1} que falten.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO inventory_shards (product_code, shard, quantity) " +
+            "SELECT :productCode, g, 0 FROM generate_series(0, :shardCount - 1) AS g " +
+            "ON CONFLICT (product_code, shard) DO NOTHING", nativeQuery = true)
+    int createMissing(@Param("productCode") String productCode, @Param("shardCount") int shardCount);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryShardEntity s SET s.quantity = :quantity " +
+            "WHERE s.productCode = :productCode AND s.shard = :shard")
+    int setQuantity(@Param("productCode") String productCode, @Param("shard") Integer shard,
+                    @Param("quantity") Integer quantity);
+
+    /**
+     * Borra los shards con número mayor o igual a {@code shardCount}.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("DELETE FROM InventoryShardEntity s WHERE s.productCode = :productCode AND s.shard >= :shardCount")
+    int deleteFrom(@Param("productCode") String productCode, @Param("shardCount") int shardCount);
+
+    /**
+     * Cambia el código de producto de los shards cuando el producto cambia de código.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE InventoryShardEntity s SET s.productCode = :newProductCode WHERE s.productCode = :productCode")
+    int renameProduct(@Param("productCode") String productCode, @Param("newProductCode") String newProductCode);
+}
@@ -0,0 +1,42 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository;
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.ProcessedProductEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Repositorio JPA para los cambios del catálogo ya aplicados {@link ProcessedProductEventEntity}.
+ */
+public interface ProcessedProductEventJpaRepository extends JpaRepository<ProcessedProductEventEntity, Long> {
+
+    /**
+     * Registra un evento como aplicado, salvo que ya lo estuviera.
+     *
+     * @param eventId id del evento en el outbox de msvc-products.
+     * @param processedAt momento de la aplicación.
+     * @return 1 si se registró ahora; 0 si ya estaba aplicado.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO processed_product_events (event_id, processed_at) VALUES (:eventId, :processedAt) " +
+            "ON CONFLICT (event_id) DO NOTHING", nativeQuery = true)
+    int markProcessed(@Param("eventId") Long eventId, @Param("processedAt") Instant processedAt);
+
+    /**
+     * Borra un lote de eventos aplicados antes de la fecha indicada, en su propia transacción.
+     *
+     * @param before fecha límite.
+     * @param limit cantidad máxima de filas a borrar.
+     * @return la cantidad de filas borradas.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM processed_product_events WHERE event_id IN (" +
+            "SELECT event_id FROM processed_product_events WHERE processed_at < :before LIMIT :limit)",
+            nativeQuery = true)
+    int deleteProcessedBefore(@Param("before") Instant before, @Param("limit") int limit);
+}
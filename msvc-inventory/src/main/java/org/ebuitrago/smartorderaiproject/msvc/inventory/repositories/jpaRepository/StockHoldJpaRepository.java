@@ -0,0 +1,50 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.jpaRepository;
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.StockHoldEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repositorio JPA para las líneas de reserva de stock {@link StockHoldEntity}.
+ */
+public interface StockHoldJpaRepository extends JpaRepository<StockHoldEntity, Long> {
+
+    /**
+     * Bloquea las líneas de una reserva hasta el fin de la transacción.
+     *
+     * @param holdId identificador de la reserva.
+     * @return las líneas de la reserva; vacío si no existe o ya se confirmó, liberó o expiró.
+     */
+    @Query(value = "SELECT * FROM stock_holds WHERE hold_id = :holdId ORDER BY product_code FOR UPDATE",
+            nativeQuery = true)
+    List<StockHoldEntity> lockByHoldId(@Param("holdId") UUID holdId);
+
+    /**
+     * Bloquea el siguiente lote de líneas vencidas, saltando las que otra transacción
+     * (otra réplica del barrido, o una confirmación en curso) tenga bloqueadas.
+     *
+     * @param now momento actual.
+     * @param limit cantidad máxima de líneas.
+     * @return las líneas vencidas bloqueadas.
+     */
+    @Query(value = "SELECT * FROM stock_holds WHERE expires_at < :now " +
+            "ORDER BY expires_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StockHoldEntity> lockExpired(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Actualiza el código de producto de las reservas activas cuando el producto cambia de código.
+     *
+     * @param productCode código anterior.
+     * @param newProductCode código nuevo.
+     * @return la cantidad de líneas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE StockHoldEntity h SET h.productCode = :newProductCode WHERE h.productCode = :productCode")
+    int renameProduct(@Param("productCode") String productCode, @Param("newProductCode") String newProductCode);
+}
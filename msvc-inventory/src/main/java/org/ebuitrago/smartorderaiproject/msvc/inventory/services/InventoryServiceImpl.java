@@ -1,17 +1,39 @@
 package org.ebuitrago.smartorderaiproject.msvc.inventory.services;
 
 
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import lombok.RequiredArgsConstructor;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.StockHoldEntity;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.InventoryResponseDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncResultDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.StockItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InventoryShardRepository;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.ProcessedProductEventRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.StockHoldRepository;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.services.useCase.InventoryUseCase;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 
 
@@ -28,6 +50,26 @@ public class InventoryServiceImpl implements InventoryUseCase {
 
     private final InvetoryRepository invetoryRepository;
 
+    private final LoadingCache<String, BigDecimal> unitPriceCache;
+
+    private final StockDecrementCombiner stockDecrementCombiner;
+
+    private final StockHoldRepository stockHoldRepository;
+
+    private final InventoryShardRepository inventoryShardRepository;
+
+    private final ShardedStock shardedStock;
+
+    private final ProcessedProductEventRepository processedProductEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${msvc.inventory.holds.ttl:15m}")
+    private Duration holdTtl;
+
+    @Value("${msvc.inventory.holds.max-ttl:2h}")
+    private Duration maxHoldTtl;
+
     /**
      * Obtiene todos los registros de inventario existentes.
      *
@@ -36,7 +78,9 @@ public class InventoryServiceImpl implements InventoryUseCase {
     @Transactional(readOnly = true)
     @Override
     public List<InventoryEntity> getAll() {
-        return invetoryRepository.getAll();
+        return invetoryRepository.getAll().stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
     }
 
     /**
@@ -56,12 +100,16 @@ public class InventoryServiceImpl implements InventoryUseCase {
             throw new RuntimeException("No existe el producto por el código que ingresaste");
         }
 
-        return product;
+        return product.stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
 
     }
 
     /**
-     * Obtiene la cantidad de stock disponible de un producto específico.
+     * Obtiene la cantidad de stock disponible de un producto específico: el stock
+     * menos la parte apartada por reservas activas, que se lleva en la misma fila,
+     * más el stock de sus shards si es un producto caliente.
      *
      * @param productCode código único del producto.
      * @return cantidad disponible de stock.
@@ -75,7 +123,7 @@ public class InventoryServiceImpl implements InventoryUseCase {
             throw new RuntimeException("No existe el producto por el código que ingresaste");
         }
 
-        Integer stockProduct = product.get().getStockQuantity();
+        Integer stockProduct = shardedStock.totalStock(product.get()) - product.get().getReservedQuantity();
         return Optional.of(stockProduct);
 
     }
@@ -83,69 +131,516 @@ public class InventoryServiceImpl implements InventoryUseCase {
     /**
      * Crea un nuevo registro de inventario o actualiza el existente.
      * <p>
-     * Si el producto ya existe, se suma la nueva cantidad al stock actual.
+     * Si el producto ya existe, se suma la nueva cantidad al stock actual. Todo ocurre en una
+     * sola sentencia {@code INSERT ... ON CONFLICT}, de modo que dos altas concurrentes del mismo
+     * producto no generan filas duplicadas.
      * </p>
      *
      * @param newProduct objeto con los datos del inventario.
      * @return el inventario creado o actualizado.
+     * @throws RuntimeException si falta el código o el stock es negativo.
      */
     @Transactional
     @Override
     public InventoryEntity createOrUpdateInvetory(InventoryResponseDto newProduct) {
 
-        Optional<InventoryEntity> inventoryDb = invetoryRepository.getByProductCode(newProduct.getProductCode());
-        InventoryEntity inventoryEntity;
+        validateNewProduct(newProduct);
 
-        if (inventoryDb.isPresent()) {
-            inventoryEntity = inventoryDb.get();
-            if (inventoryEntity.getProductCode().equals(newProduct.getProductCode())) {
-                inventoryEntity.setStockQuantity(newProduct.getInitialStock() + inventoryEntity.getStockQuantity());
-            }
-        } else {
-            inventoryEntity = new InventoryEntity();
-            inventoryEntity.setProductCode(newProduct.getProductCode());
-            inventoryEntity.setStockQuantity(newProduct.getInitialStock());
-            inventoryEntity.setUnitPrice(newProduct.getUnitPrice());
+        evictUnitPrices(List.of(newProduct.getProductCode()));
+        return shardedStock.withTotalStock(invetoryRepository.upsert(newProduct.getProductCode(),
+                newProduct.getInitialStock(), newProduct.getUnitPrice()));
+
+    }
+
+    /**
+     * Crea o actualiza el inventario de muchos productos con una sola sentencia.
+     * <p>
+     * Los productos repetidos en la lista se combinan sumando su stock; el precio
+     * que se usa es el de la primera aparición.
+     * </p>
+     *
+     * @param newProducts datos de los inventarios.
+     * @return los inventarios creados o actualizados.
+     * @throws RuntimeException si algún producto no tiene código o tiene stock negativo.
+     */
+    @Transactional
+    @Override
+    public List<InventoryEntity> createOrUpdateInventories(List<InventoryResponseDto> newProducts) {
+
+        if (newProducts == null || newProducts.isEmpty()) {
+            return List.of();
         }
 
-        return invetoryRepository.save(inventoryEntity);
+        Map<String, Integer> stockByProductCode = new TreeMap<>();
+        Map<String, BigDecimal> unitPriceByProductCode = new HashMap<>();
 
+        for (InventoryResponseDto newProduct : newProducts) {
+            validateNewProduct(newProduct);
+            stockByProductCode.merge(newProduct.getProductCode(), newProduct.getInitialStock(), Integer::sum);
+            unitPriceByProductCode.putIfAbsent(newProduct.getProductCode(), newProduct.getUnitPrice());
+        }
+
+        evictUnitPrices(List.copyOf(stockByProductCode.keySet()));
+        return invetoryRepository.upsertAll(stockByProductCode, unitPriceByProductCode).stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
+    }
+
+    private static void validateNewProduct(InventoryResponseDto newProduct) {
+        if (newProduct.getProductCode() == null || newProduct.getProductCode().isBlank()) {
+            throw new RuntimeException("El código del producto es obligatorio");
+        }
+        if (newProduct.getInitialStock() == null || newProduct.getInitialStock() < 0) {
+            throw new RuntimeException("El stock del producto " + newProduct.getProductCode()
+                    + " debe ser cero o mayor");
+        }
     }
 
+    /**
+     * Obtiene el precio unitario de un producto desde la caché de precios.
+     * Si no está en caché se carga con una sola consulta.
+     *
+     * @param productCode código único del producto.
+     * @return el precio unitario.
+     * @throws RuntimeException si el producto no existe.
+     */
     @Override
     public Optional<BigDecimal> getUnitPriceByProductCode(String productCode) {
 
-        Optional<InventoryEntity> product = invetoryRepository.getByProductCode(productCode);
+        BigDecimal unitPrice = unitPriceCache.get(productCode);
 
-        if (product.isEmpty()) {
+        if (unitPrice == null) {
              throw (new RuntimeException("No existe ese prducto, no hay precio unitario a mostrar"));
         }
 
-        return invetoryRepository.getUnitPriceByProductCode(product.get().getProductCode());
+        return Optional.of(unitPrice);
     }
 
-    @Transactional
+    /**
+     * Obtiene el precio unitario de varios productos desde la caché de precios;
+     * los que no están en caché se cargan con una única consulta.
+     *
+     * @param productCodes códigos de los productos a consultar.
+     * @return mapa código de producto → precio unitario.
+     * @throws RuntimeException si alguno de los productos no existe.
+     */
     @Override
-    public InventoryEntity decrementInventory(String productCode, Integer quantity) {
+    public Map<String, BigDecimal> getUnitPricesByProductCodes(List<String> productCodes) {
 
-        Optional<InventoryEntity> productDb = invetoryRepository.getByProductCode(productCode);
+        Map<String, BigDecimal> prices = unitPriceCache.getAll(productCodes);
 
-        if (productDb.isEmpty()){
-            throw (new RuntimeException("No existe el producto por el codigo ingresado, prueba con otro codigo"));
+        for (String productCode : productCodes) {
+            if (!prices.containsKey(productCode)) {
+                throw (new RuntimeException("No existe el producto " + productCode + ", no hay precio unitario a mostrar"));
+            }
         }
 
-        if (productDb.get().getStockQuantity() < quantity) {
+        return prices;
+    }
+
+    /**
+     * Descuenta el stock de un producto con una actualización condicional atómica.
+     * <p>
+     * La verificación de existencias y la resta se hacen en una sola sentencia, de modo que
+     * peticiones concurrentes sobre el mismo producto no pierden actualizaciones ni sobrevenden.
+     * </p>
+     * <p>
+     * Con {@code msvc.inventory.combining.enabled=true} el descuento pasa por
+     * {@link StockDecrementCombiner}, que lo agrupa con los demás del mismo producto. Por eso
+     * el método no abre una transacción propia: no debe retener una conexión mientras espera el lote.
+     * Los productos con shards no se agrupan: se descuentan de un shard libre mediante {@link ShardedStock}
+     * y la respuesta informa el stock total.
+     * </p>
+     *
+     * @param productCode código único del producto.
+     * @param quantity    cantidad a descontar.
+     * @return el inventario actualizado.
+     * @throws RuntimeException si el producto no existe o no hay stock disponible.
+     */
+    @Override
+    public InventoryEntity decrementInventory(String productCode, Integer quantity) {
+
+        if (stockDecrementCombiner.isEnabled() && !shardedStock.isHot(productCode)) {
+            if (!stockDecrementCombiner.decrement(productCode, quantity)) {
+                throw (new RuntimeException("No hay stock disponible"));
+            }
+            return shardedStock.withTotalStock(invetoryRepository.getByProductCode(productCode).get());
+        }
+
+        if (!shardedStock.decrement(productCode, quantity)) {
+
+            if (!invetoryRepository.existsByProductCode(productCode)) {
+                throw (new RuntimeException("No existe el producto por el codigo ingresado, prueba con otro codigo"));
+            }
+
             throw (new RuntimeException("No hay stock disponible"));
         }
 
-        productDb.get().setStockQuantity(productDb.get().getStockQuantity() - quantity);
+        return shardedStock.withTotalStock(invetoryRepository.getByProductCode(productCode).get());
+
+    }
+
+    /**
+     * Descuenta el stock de todas las líneas de una orden en una sola transacción.
+     * <p>
+     * Las líneas con el mismo código de producto se agrupan y cada producto se descuenta
+     * con una actualización condicional atómica, siempre en el mismo orden de código para
+     * evitar bloqueos cruzados entre órdenes concurrentes. Si una línea falla se revierte todo.
+     * </p>
+     *
+     * @param items líneas con el código del producto y la cantidad a descontar.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si los datos no son válidos, algún producto no existe o no hay stock disponible.
+     */
+    @Transactional
+    @Override
+    public List<InventoryEntity> decrementInventoryBatch(List<StockItemDto> items) {
+
+        validateStockItems(items);
+
+        Map<String, Integer> quantities = items.stream()
+                .collect(Collectors.toMap(StockItemDto::getProductCode, StockItemDto::getQuantity,
+                        Integer::sum, TreeMap::new));
+
+        quantities.forEach((productCode, quantity) -> {
+
+            if (!shardedStock.decrement(productCode, quantity)) {
+
+                if (!invetoryRepository.existsByProductCode(productCode)) {
+                    throw (new RuntimeException("No existe el producto por el codigo " + productCode + ", prueba con otro codigo"));
+                }
+
+                throw (new RuntimeException("No hay stock disponible para el producto " + productCode));
+            }
+        });
+
+        return invetoryRepository.getAllByProductCodes(quantities.keySet()).stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
+    }
+
+    /**
+     * Reintegra el stock de varios productos en una sola transacción.
+     * <p>
+     * Es la operación de compensación de {@link #decrementInventoryBatch}: la invoca
+     * msvc-products-orders cuando ya descontó el stock pero no pudo registrar la orden.
+     * </p>
+     *
+     * @param items líneas con el código del producto y la cantidad a reintegrar.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si los datos no son válidos o algún producto no existe.
+     */
+    @Transactional
+    @Override
+    public List<InventoryEntity> incrementInventoryBatch(List<StockItemDto> items) {
+
+        validateStockItems(items);
+
+        Map<String, Integer> quantities = items.stream()
+                .collect(Collectors.toMap(StockItemDto::getProductCode, StockItemDto::getQuantity,
+                        Integer::sum, TreeMap::new));
+
+        quantities.forEach((productCode, quantity) -> {
+            if (invetoryRepository.incrementStock(productCode, quantity) == 0) {
+                throw (new RuntimeException("No existe el producto por el codigo " + productCode + ", prueba con otro codigo"));
+            }
+        });
+
+        return invetoryRepository.getAllByProductCodes(quantities.keySet()).stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
+    }
+
+    /**
+     * Verifica que cada línea de un lote de stock indique su código y una cantidad mayor a cero.
+     * Un lote vacío es válido y no modifica nada.
+     *
+     * @param items líneas con el código del producto y la cantidad.
+     * @throws RuntimeException si falta el lote o alguna línea no es válida.
+     */
+    private void validateStockItems(List<StockItemDto> items) {
+
+        if (items == null) {
+            throw new RuntimeException("El lote debe indicar sus productos");
+        }
+
+        for (StockItemDto item : items) {
+            if (item.getProductCode() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new RuntimeException("Cada producto debe indicar su código y una cantidad mayor a cero");
+            }
+        }
+    }
+
+    /**
+     * Aplica, en orden, un lote de cambios del catálogo de productos.
+     * <p>
+     * Cada cambio se traduce en una sentencia puntual, sin leer ni reescribir el stock completo:
+     * un alta suma una unidad (o crea el inventario), una actualización cambia código y precio,
+     * y una baja resta una unidad si hay stock. La entrega es "al menos una vez": cada id de evento
+     * se registra en la misma transacción que su cambio y los reenvíos de un id ya aplicado se
+     * descartan, y una baja sin stock disponible no se considera un error.
+     * </p>
+     * <p>
+     * El lote se aplica en una sola transacción. Si falla, se vuelve a aplicar cambio por cambio,
+     * cada uno en su propia transacción, hasta el primero que falle: así un cambio inválido (por
+     * ejemplo, un cambio de código hacia uno ya existente) no impide aplicar los anteriores, y el
+     * relay puede reintentar o descartar solo ese cambio.
+     * </p>
+     *
+     * @param events cambios del catálogo en el orden en que ocurrieron.
+     * @return cuántos cambios se aplicaron y, si uno falló, el motivo.
+     */
+    @Override
+    public ProductSyncResultDto syncProducts(List<ProductSyncDto> events) {
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> events.forEach(this::applyProductSync));
+            return new ProductSyncResultDto(events.size(), null);
+        } catch (RuntimeException e) {
+            return applyProductSyncOneByOne(events);
+        }
+    }
+
+    /**
+     * Aplica los cambios de a uno, cada uno en su transacción, y se detiene en el primero que falle.
+     */
+    private ProductSyncResultDto applyProductSyncOneByOne(List<ProductSyncDto> events) {
+
+        for (int i = 0; i < events.size(); i++) {
+            ProductSyncDto event = events.get(i);
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyProductSync(event));
+            } catch (RuntimeException e) {
+                return new ProductSyncResultDto(i, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        }
+
+        return new ProductSyncResultDto(events.size(), null);
+    }
+
+    /**
+     * Aplica un cambio del catálogo, salvo que su id ya se haya aplicado. Debe ejecutarse en una transacción.
+     */
+    private void applyProductSync(ProductSyncDto event) {
+
+        if (event.getEventId() != null && !processedProductEventRepository.markProcessed(event.getEventId())) {
+            return;
+        }
+
+        switch (event.getEventType()) {
+            case ProductSyncDto.PRODUCT_CREATED ->
+                    invetoryRepository.upsert(event.getProductCode(), 1, event.getUnitPrice());
+            case ProductSyncDto.PRODUCT_UPDATED -> {
+                invetoryRepository.updateProductData(
+                        event.getPreviousProductCode(), event.getProductCode(), event.getUnitPrice());
+                if (event.getPreviousProductCode() != null
+                        && !event.getPreviousProductCode().equals(event.getProductCode())) {
+                    stockHoldRepository.renameProduct(event.getPreviousProductCode(), event.getProductCode());
+                    inventoryShardRepository.renameProduct(event.getPreviousProductCode(), event.getProductCode());
+                }
+                evictUnitPrices(List.of(event.getPreviousProductCode(), event.getProductCode()));
+            }
+            case ProductSyncDto.PRODUCT_DELETED -> shardedStock.decrement(event.getProductCode(), 1);
+            default -> throw new RuntimeException("Tipo de cambio desconocido: " + event.getEventType());
+        }
+    }
+
+    /**
+     * Aparta stock de varios productos hasta que la reserva se confirme, se libere o expire.
+     * <p>
+     * Cada producto se reserva con una actualización condicional sobre {@code reserved_quantity},
+     * en orden de código para evitar bloqueos cruzados; si alguno no alcanza se revierte todo.
+     * Las reservas se apartan de la fila principal: si el producto tiene shards y la fila principal
+     * no alcanza, antes de rechazar se junta en ella el stock de los shards.
+     * </p>
+     *
+     * @param request productos a reservar y duración opcional de la reserva.
+     * @return la reserva creada.
+     * @throws RuntimeException si los datos no son válidos, algún producto no existe o no hay stock disponible.
+     */
+    @Transactional
+    @Override
+    public ReservationDto reserveStock(ReservationRequestDto request) {
+
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new RuntimeException("La reserva debe tener al menos un producto");
+        }
+
+        Duration ttl = request.getTtl() != null ? request.getTtl() : holdTtl;
+        if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxHoldTtl) > 0) {
+            throw new RuntimeException("La duración de la reserva debe ser mayor a cero y de máximo " + maxHoldTtl);
+        }
+
+        for (StockItemDto item : request.getItems()) {
+            if (item.getProductCode() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new RuntimeException("Cada producto debe indicar su código y una cantidad mayor a cero");
+            }
+        }
+
+        Map<String, Integer> quantities = request.getItems().stream()
+                .collect(Collectors.toMap(StockItemDto::getProductCode, StockItemDto::getQuantity,
+                        Integer::sum, TreeMap::new));
+
+        quantities.forEach((productCode, quantity) -> {
 
-        return invetoryRepository.save(productDb.get());
+            if (invetoryRepository.reserveStock(productCode, quantity) == 0
+                    && (shardedStock.consolidate(productCode) == 0
+                        || invetoryRepository.reserveStock(productCode, quantity) == 0)) {
 
+                if (!invetoryRepository.existsByProductCode(productCode)) {
+                    throw (new RuntimeException("No existe el producto por el codigo " + productCode + ", prueba con otro codigo"));
+                }
+
+                throw (new RuntimeException("No hay stock disponible para el producto " + productCode));
+            }
+        });
+
+        UUID holdId = UUID.randomUUID();
+        Instant expiresAt = Instant.now().plus(ttl);
+        List<StockHoldEntity> holds = new ArrayList<>();
+
+        quantities.forEach((productCode, quantity) -> {
+            StockHoldEntity hold = new StockHoldEntity();
+            hold.setHoldId(holdId);
+            hold.setProductCode(productCode);
+            hold.setQuantity(quantity);
+            hold.setExpiresAt(expiresAt);
+            holds.add(hold);
+        });
+        stockHoldRepository.saveAll(holds);
+
+        List<StockItemDto> items = new ArrayList<>();
+        quantities.forEach((productCode, quantity) -> items.add(new StockItemDto(productCode, quantity)));
+
+        return new ReservationDto(holdId, expiresAt, items);
     }
 
     /**
-     * Reduce en una unidad el stock del producto según su código.
+     * Confirma una reserva: descuenta definitivamente su stock y la elimina.
+     * <p>
+     * Una reserva vencida no se puede confirmar aunque el barrido todavía no la haya liberado.
+     * </p>
+     *
+     * @param holdId identificador de la reserva.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si la reserva no existe, ya se confirmó o liberó, o expiró.
+     */
+    @Transactional
+    @Override
+    public List<InventoryEntity> confirmReservation(UUID holdId) {
+
+        List<StockHoldEntity> holds = stockHoldRepository.lockByHoldId(holdId);
+
+        if (holds.isEmpty()) {
+            throw new RuntimeException("No existe la reserva " + holdId + " o ya fue confirmada, liberada o expiró");
+        }
+
+        Instant now = Instant.now();
+        if (holds.stream().anyMatch(hold -> hold.getExpiresAt().isBefore(now))) {
+            throw new RuntimeException("La reserva " + holdId + " expiró");
+        }
+
+        holds.forEach(hold -> invetoryRepository.confirmReserved(hold.getProductCode(), hold.getQuantity()));
+        stockHoldRepository.deleteAll(holds);
+
+        return invetoryRepository.getAllByProductCodes(
+                holds.stream().map(StockHoldEntity::getProductCode).toList()).stream()
+                .map(shardedStock::withTotalStock)
+                .toList();
+    }
+
+    /**
+     * Libera una reserva: devuelve su stock al disponible y la elimina.
+     *
+     * @param holdId identificador de la reserva.
+     * @return {@code true} si se liberó.
+     * @throws RuntimeException si la reserva no existe o ya fue confirmada o liberada.
+     */
+    @Transactional
+    @Override
+    public Boolean releaseReservation(UUID holdId) {
+
+        List<StockHoldEntity> holds = stockHoldRepository.lockByHoldId(holdId);
+
+        if (holds.isEmpty()) {
+            throw new RuntimeException("No existe la reserva " + holdId + " o ya fue confirmada, liberada o expiró");
+        }
+
+        releaseHolds(holds);
+        return true;
+    }
+
+    /**
+     * Libera un lote de líneas de reserva vencidas, saltando las que otra transacción tenga bloqueadas.
+     *
+     * @param limit cantidad máxima de líneas a liberar.
+     * @return la cantidad de líneas liberadas.
+     */
+    @Transactional
+    @Override
+    public Integer expireReservations(int limit) {
+
+        List<StockHoldEntity> holds = stockHoldRepository.lockExpired(limit);
+        releaseHolds(holds);
+        return holds.size();
+    }
+
+    /**
+     * Devuelve al disponible la cantidad de las líneas indicadas, agrupada por producto
+     * y en orden de código, y borra las líneas.
+     */
+    private void releaseHolds(List<StockHoldEntity> holds) {
+
+        if (holds.isEmpty()) {
+            return;
+        }
+
+        Map<String, Integer> quantities = holds.stream()
+                .collect(Collectors.toMap(StockHoldEntity::getProductCode, StockHoldEntity::getQuantity,
+                        Integer::sum, TreeMap::new));
+
+        quantities.forEach(invetoryRepository::releaseReserved);
+        stockHoldRepository.deleteAll(holds);
+    }
+
+    /**
+     * Cambia la cantidad de shards de stock de un producto caliente y reparte su stock libre entre ellos.
+     * Con {@code 0} el producto vuelve a llevar todo su stock en una sola fila.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount cantidad de shards.
+     * @return el inventario con su stock total.
+     * @throws RuntimeException si el producto no existe o la cantidad no es válida.
+     */
+    @Override
+    public InventoryEntity configureShards(String productCode, Integer shardCount) {
+        return shardedStock.configure(productCode, shardCount);
+    }
+
+    /**
+     * Quita de la caché de precios los productos indicados cuando se confirma la transacción actual,
+     * para que una lectura concurrente no vuelva a guardar el precio anterior.
+     *
+     * @param productCodes códigos de los productos cuyo precio cambió.
+     */
+    private void evictUnitPrices(List<String> productCodes) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            unitPriceCache.invalidateAll(productCodes);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                unitPriceCache.invalidateAll(productCodes);
+            }
+        });
+    }
+
+    /**
+     * Reduce en una unidad el stock del producto según su código,
+     * usando la misma actualización condicional atómica que {@link #decrementInventory}.
      *
      * @param productCode código único del producto.
      * @return {@code true} si se modificó correctamente el stock.
@@ -155,20 +650,17 @@ public class InventoryServiceImpl implements InventoryUseCase {
     @Override
     public Boolean deleteByProductCode(String productCode) {
 
-        Optional<InventoryEntity> productDb = invetoryRepository.getByProductCode(productCode);
-        if (productDb.isEmpty()) {
-            throw new RuntimeException("No existe el producto por el código que ingresaste");
-        }
+        if (!shardedStock.decrement(productCode, 1)) {
+
+            if (!invetoryRepository.existsByProductCode(productCode)) {
+                throw new RuntimeException("No existe el producto por el código que ingresaste");
+            }
 
-        InventoryEntity inventoryEntity = productDb.get();
-        if (inventoryEntity.getStockQuantity() > 0) {
-            inventoryEntity.setStockQuantity(inventoryEntity.getStockQuantity() - 1);
-            invetoryRepository.save(inventoryEntity);
-            return true;
-        } else {
             throw new RuntimeException("No hay stock para modificar");
         }
 
+        return true;
+
     }
 
 }
@@ -0,0 +1,37 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.services;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.ProcessedProductEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tarea programada que borra, por lotes, los ids de cambios del catálogo ya aplicados.
+ * La retención debe superar con holgura el tiempo en que msvc-products puede reenviar un evento.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProcessedProductEventSweeper {
+
+    private final ProcessedProductEventRepository processedProductEventRepository;
+
+    @Value("${msvc.inventory.sync.processed-retention:7d}")
+    private Duration retention;
+
+    @Value("${msvc.inventory.sync.purge-batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${msvc.inventory.sync.purge-interval:1h}")
+    public void purge() {
+        Instant before = Instant.now().minus(retention);
+        int deleted;
+        do {
+            deleted = processedProductEventRepository.deleteProcessedBefore(before, batchSize);
+        } while (deleted == batchSize);
+    }
+}
@@ -0,0 +1,256 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.services;
+
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryShardEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InventoryShardRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stock repartido en shards para los productos calientes (flash sales).
+ * <p>
+ * Aunque el descuento sea una sola actualización atómica, todas las compras de un producto
+ * esperan el bloqueo de la misma fila. Un producto marcado con {@code shard_count = N} reparte su
+ * stock libre entre la fila principal y N filas de {@code inventory_shards}; cada compra descuenta
+ * de un shard elegido al azar entre los que no están bloqueados, por lo que el rendimiento crece
+ * con la cantidad de shards.
+ * </p>
+ * <p>
+ * El orden de descuento es: un shard al azar, la fila principal y, si ninguno alcanza por separado,
+ * se junta todo el stock de los shards en la fila principal y se reintenta. Así una compra solo
+ * falla cuando el total disponible no alcanza, igual que sin shards. Las reservas y los reintegros
+ * trabajan sobre la fila principal; un proceso en segundo plano vuelve a repartir el stock cuando
+ * algún shard queda por debajo de la mitad de su parte.
+ * </p>
+ */
+@Component
+public class ShardedStock {
+
+    private final InvetoryRepository invetoryRepository;
+
+    private final InventoryShardRepository inventoryShardRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Set<String> hotProducts = ConcurrentHashMap.newKeySet();
+
+    @Value("${msvc.inventory.shards.max-shards:64}")
+    private int maxShards;
+
+    public ShardedStock(InvetoryRepository invetoryRepository,
+                        InventoryShardRepository inventoryShardRepository,
+                        TransactionTemplate transactionTemplate) {
+        this.invetoryRepository = invetoryRepository;
+        this.inventoryShardRepository = inventoryShardRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Indica si el producto tiene shards según la última lectura de esta instancia.
+     *
+     * @param productCode código único del producto.
+     * @return {@code true} si el producto es caliente.
+     */
+    public boolean isHot(String productCode) {
+        return hotProducts.contains(productCode);
+    }
+
+    /**
+     * Descuenta stock de un producto, con o sin shards.
+     * <p>
+     * Para un producto sin shards cuesta lo mismo que antes (una actualización condicional);
+     * solo cuando esa actualización falla se revisan los shards.
+     * </p>
+     *
+     * @param productCode código único del producto.
+     * @param quantity cantidad a descontar.
+     * @return {@code true} si se descontó; {@code false} si no existe o no hay stock disponible.
+     */
+    public boolean decrement(String productCode, Integer quantity) {
+
+        if (isHot(productCode) && inventoryShardRepository.decrementRandomShard(productCode, quantity) > 0) {
+            return true;
+        }
+
+        if (invetoryRepository.decrementStockIfAvailable(productCode, quantity) > 0) {
+            return true;
+        }
+
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                consolidate(productCode) > 0
+                        && invetoryRepository.decrementStockIfAvailable(productCode, quantity) > 0));
+    }
+
+    /**
+     * Pasa todo el stock de los shards de un producto a su fila principal.
+     * Debe ejecutarse dentro de una transacción; bloquea primero la fila principal y después los shards.
+     *
+     * @param productCode código único del producto.
+     * @return la cantidad movida ({@code 0} si no tenía shards o estaban vacíos).
+     */
+    public int consolidate(String productCode) {
+
+        if (invetoryRepository.lockByProductCode(productCode).isEmpty()) {
+            return 0;
+        }
+
+        List<InventoryShardEntity> shards = inventoryShardRepository.lockByProductCode(productCode);
+        int total = shards.stream().mapToInt(InventoryShardEntity::getQuantity).sum();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        shards.stream()
+                .filter(shard -> shard.getQuantity() > 0)
+                .forEach(shard -> inventoryShardRepository.setQuantity(productCode, shard.getShard(), 0));
+        invetoryRepository.incrementStock(productCode, total);
+        return total;
+    }
+
+    /**
+     * Stock total de un producto: la fila principal más sus shards.
+     *
+     * @param inventory fila principal del producto.
+     * @return el stock total.
+     */
+    public int totalStock(InventoryEntity inventory) {
+        if (inventory.getShardCount() == 0) {
+            return inventory.getStockQuantity();
+        }
+        return inventory.getStockQuantity()
+                + (int) inventoryShardRepository.sumByProductCode(inventory.getProductCode());
+    }
+
+    /**
+     * Cambia la cantidad de shards de un producto y reparte su stock; con {@code 0} deja todo en la fila principal.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount nueva cantidad de shards.
+     * @return el inventario con el stock total.
+     * @throws RuntimeException si el producto no existe o la cantidad no es válida.
+     */
+    public InventoryEntity configure(String productCode, Integer shardCount) {
+
+        if (shardCount == null || shardCount < 0 || shardCount > maxShards) {
+            throw new RuntimeException("La cantidad de shards debe estar entre 0 y " + maxShards);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+
+            InventoryEntity inventory = invetoryRepository.lockByProductCode(productCode)
+                    .orElseThrow(() -> new RuntimeException("No existe el producto por el código que ingresaste"));
+
+            int stock = inventory.getStockQuantity() + consolidate(productCode);
+            int reserved = inventory.getReservedQuantity();
+
+            inventoryShardRepository.deleteFrom(productCode, shardCount);
+            invetoryRepository.setShardCount(productCode, shardCount);
+
+            if (shardCount > 0) {
+                inventoryShardRepository.createMissing(productCode, shardCount);
+                spread(productCode, shardCount, reserved, stock - reserved);
+            }
+        });
+
+        if (shardCount > 0) {
+            hotProducts.add(productCode);
+        } else {
+            hotProducts.remove(productCode);
+        }
+
+        InventoryEntity inventory = invetoryRepository.getByProductCode(productCode).get();
+        return withTotalStock(inventory);
+    }
+
+    /**
+     * Devuelve una copia del inventario con el stock total en {@code stockQuantity}, para
+     * mantener el contrato de las respuestas que antes leían una sola fila.
+     *
+     * @param inventory fila principal del producto.
+     * @return la copia con el stock total, o el mismo inventario si no tiene shards.
+     */
+    public InventoryEntity withTotalStock(InventoryEntity inventory) {
+
+        if (inventory.getShardCount() == 0) {
+            return inventory;
+        }
+
+        InventoryEntity copy = new InventoryEntity();
+        copy.setId(inventory.getId());
+        copy.setProductCode(inventory.getProductCode());
+        copy.setStockQuantity(totalStock(inventory));
+        copy.setReservedQuantity(inventory.getReservedQuantity());
+        copy.setShardCount(inventory.getShardCount());
+        copy.setUnitPrice(inventory.getUnitPrice());
+        return copy;
+    }
+
+    /**
+     * Actualiza la lista de productos calientes y vuelve a repartir el stock de los que lo necesiten.
+     * Los productos cuya fila o shards estén ocupados se saltan hasta la próxima ronda.
+     */
+    @Scheduled(fixedDelayString = "${msvc.inventory.shards.rebalance-interval:1s}")
+    public void rebalanceAll() {
+
+        Map<String, Integer> sharded = invetoryRepository.getShardedProducts().stream()
+                .collect(Collectors.toMap(InventoryEntity::getProductCode, InventoryEntity::getShardCount));
+
+        hotProducts.retainAll(sharded.keySet());
+        hotProducts.addAll(sharded.keySet());
+
+        sharded.forEach((productCode, shardCount) ->
+                transactionTemplate.executeWithoutResult(status -> rebalance(productCode, shardCount)));
+    }
+
+    private void rebalance(String productCode, int shardCount) {
+
+        InventoryEntity inventory = invetoryRepository.tryLockByProductCode(productCode).orElse(null);
+        if (inventory == null) {
+            return;
+        }
+
+        List<InventoryShardEntity> shards = inventoryShardRepository.tryLockByProductCode(productCode).stream()
+                .filter(shard -> shard.getShard() < shardCount)
+                .toList();
+        if (shards.size() < shardCount) {
+            inventoryShardRepository.createMissing(productCode, shardCount);
+            return;
+        }
+
+        int reserved = inventory.getReservedQuantity();
+        int free = inventory.getStockQuantity() - reserved
+                + shards.stream().mapToInt(InventoryShardEntity::getQuantity).sum();
+        int target = free / (shardCount + 1);
+
+        if (shards.stream().noneMatch(shard -> shard.getQuantity() < target / 2)) {
+            return;
+        }
+
+        spread(productCode, shardCount, reserved, free);
+    }
+
+    /**
+     * Reparte el stock libre en partes iguales entre los shards y la fila principal;
+     * el resto de la división y lo reservado quedan en la fila principal.
+     */
+    private void spread(String productCode, int shardCount, int reserved, int free) {
+
+        int target = free / (shardCount + 1);
+
+        for (int shard = 0; shard < shardCount; shard++) {
+            inventoryShardRepository.setQuantity(productCode, shard, target);
+        }
+        invetoryRepository.setStockQuantity(productCode, reserved + free - shardCount * target);
+    }
+}
@@ -0,0 +1,316 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.services;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Combina los descuentos de stock de un mismo producto que llegan dentro de una ventana corta.
+ * <p>
+ * En una promoción miles de descuentos por segundo apuntan a la misma fila de {@code inventory}
+ * y se serializan en su bloqueo. Con {@code msvc.inventory.combining.enabled=true}, los descuentos
+ * de un producto se encolan; al cerrar la ventana ({@code window}) se aplican en lotes de hasta
+ * {@code max-batch} con una sola actualización condicional por lote. Si el stock no alcanza para
+ * todo el lote, se bloquea la fila una vez, se reparte el stock en orden de llegada y se descuenta
+ * solo lo concedido, de modo que cada petición recibe el mismo resultado que si se hubieran
+ * ejecutado una por una.
+ * </p>
+ * <p>
+ * Si el producto tiene shards ({@link ShardedStock}), antes de repartir se junta en la fila principal
+ * el stock de los shards: otra instancia pudo haberlos configurado hace poco y esta todavía enviar el
+ * producto por aquí, y sin ese paso se rechazaría un descuento que el stock total sí cubre.
+ * </p>
+ * <p>
+ * Cada producto tiene como máximo un lote en curso, así se respeta el orden de llegada. Cada tarea
+ * de vaciado aplica un solo lote y, si quedan peticiones, vuelve a encolarse detrás de las de otros
+ * productos: unos pocos productos con tráfico sostenido no acaparan los {@code flush-threads}.
+ * Si la cola de un producto supera {@code max-queue-depth} peticiones, las nuevas se rechazan de
+ * inmediato, y una petición que no entra en un lote dentro de {@code max-wait} se retira de la cola
+ * y falla, en lugar de retener el hilo de la petición HTTP indefinidamente. El tamaño de los
+ * lotes se publica en el histograma {@code inventory.stock.decrement.batch.size}.
+ * </p>
+ */
+@Component
+public class StockDecrementCombiner {
+
+    private final InvetoryRepository invetoryRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ShardedStock shardedStock;
+
+    private final ConcurrentHashMap<String, SkuQueue> queues = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler;
+
+    private final DistributionSummary batchSize;
+
+    private final Counter rejected;
+
+    private final Counter timedOut;
+
+    private final boolean enabled;
+
+    private final Duration window;
+
+    private final int maxBatch;
+
+    private final int maxQueueDepth;
+
+    private final Duration maxWait;
+
+    public StockDecrementCombiner(InvetoryRepository invetoryRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  ShardedStock shardedStock,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${msvc.inventory.combining.enabled:false}") boolean enabled,
+                                  @Value("${msvc.inventory.combining.window:2ms}") Duration window,
+                                  @Value("${msvc.inventory.combining.max-batch:64}") int maxBatch,
+                                  @Value("${msvc.inventory.combining.max-queue-depth:1000}") int maxQueueDepth,
+                                  @Value("${msvc.inventory.combining.flush-threads:4}") int flushThreads,
+                                  @Value("${msvc.inventory.combining.max-wait:5s}") Duration maxWait) {
+
+        this.invetoryRepository = invetoryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardedStock = shardedStock;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxBatch = maxBatch;
+        this.maxQueueDepth = maxQueueDepth;
+        this.maxWait = maxWait;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(enabled ? flushThreads : 0, runnable -> {
+            Thread thread = new Thread(runnable, "stock-decrement-combiner-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.batchSize = DistributionSummary.builder("inventory.stock.decrement.batch.size")
+                .description("Descuentos de stock combinados en una sola actualización")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("inventory.stock.decrement.rejected")
+                .description("Descuentos rechazados por tener la cola del producto llena")
+                .register(meterRegistry);
+        this.timedOut = Counter.builder("inventory.stock.decrement.timed-out")
+                .description("Descuentos retirados de la cola por no aplicarse dentro de max-wait")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Encola un descuento y espera a que se aplique el lote que lo contiene.
+     * <p>
+     * Si en {@code max-wait} ningún lote tomó la petición, se retira de la cola y falla sin haber
+     * descontado nada. Si un lote ya la tomó, se espera su resultado: llega al terminar la transacción.
+     * </p>
+     *
+     * @param productCode código único del producto.
+     * @param quantity cantidad a descontar.
+     * @return {@code true} si se descontó; {@code false} si no había stock suficiente.
+     * @throws RuntimeException si el producto no existe, la cola está llena, se agotó la espera
+     *                          o falla la base de datos.
+     */
+    public boolean decrement(String productCode, Integer quantity) {
+
+        PendingDecrement pending = enqueue(productCode, quantity);
+        boolean interrupted = false;
+
+        try {
+            long deadline = System.nanoTime() + maxWait.toNanos();
+            while (true) {
+                try {
+                    return pending.result().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (TimeoutException e) {
+                    if (pending.taken().compareAndSet(false, true)) {
+                        withdraw(productCode, pending);
+                        timedOut.increment();
+                        throw new RuntimeException("El descuento de stock del producto " + productCode
+                                + " no se pudo aplicar a tiempo, intenta de nuevo");
+                    }
+                    return pending.result().join();
+                }
+            }
+        } catch (ExecutionException | CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private PendingDecrement enqueue(String productCode, Integer quantity) {
+
+        PendingDecrement pending = new PendingDecrement(quantity, new CompletableFuture<>(), new AtomicBoolean());
+
+        while (true) {
+            SkuQueue queue = queues.computeIfAbsent(productCode, code -> new SkuQueue());
+            synchronized (queue) {
+                if (queue.retired) {
+                    continue;
+                }
+                if (queue.pending.size() >= maxQueueDepth) {
+                    rejected.increment();
+                    throw new RuntimeException("Hay demasiadas solicitudes pendientes para el producto "
+                            + productCode + ", intenta de nuevo");
+                }
+                queue.pending.add(pending);
+                if (!queue.scheduled) {
+                    queue.scheduled = true;
+                    scheduler.schedule(() -> flush(productCode, queue), window.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            return pending;
+        }
+    }
+
+    /**
+     * Quita de la cola una petición que venció antes de entrar en un lote.
+     */
+    private void withdraw(String productCode, PendingDecrement pending) {
+        SkuQueue queue = queues.get(productCode);
+        if (queue != null) {
+            synchronized (queue) {
+                queue.pending.remove(pending);
+            }
+        }
+    }
+
+    /**
+     * Aplica un lote de lo encolado para un producto. Si quedan peticiones, vuelve a encolar el
+     * vaciado detrás de las tareas ya pendientes; si no, retira la cola, y la siguiente petición
+     * para el producto abre una ventana nueva.
+     */
+    private void flush(String productCode, SkuQueue queue) {
+
+        List<PendingDecrement> batch = new ArrayList<>(maxBatch);
+        synchronized (queue) {
+            while (batch.size() < maxBatch && !queue.pending.isEmpty()) {
+                PendingDecrement pending = queue.pending.poll();
+                if (pending.taken().compareAndSet(false, true)) {
+                    batch.add(pending);
+                }
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                apply(productCode, batch);
+            }
+        } finally {
+            synchronized (queue) {
+                if (queue.pending.isEmpty()) {
+                    queue.retired = true;
+                    queues.remove(productCode, queue);
+                } else {
+                    scheduler.execute(() -> flush(productCode, queue));
+                }
+            }
+        }
+    }
+
+    private void apply(String productCode, List<PendingDecrement> batch) {
+
+        batchSize.record(batch.size());
+        int total = batch.stream().mapToInt(PendingDecrement::quantity).sum();
+        boolean[] granted = new boolean[batch.size()];
+
+        try {
+            boolean exists = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+
+                if (invetoryRepository.decrementStockIfAvailable(productCode, total) > 0) {
+                    Arrays.fill(granted, true);
+                    return true;
+                }
+
+                shardedStock.consolidate(productCode);
+                Optional<Integer> stock = invetoryRepository.lockStockByProductCode(productCode);
+                if (stock.isEmpty()) {
+                    return false;
+                }
+
+                int remaining = stock.get();
+                int grantedTotal = 0;
+                for (int i = 0; i < batch.size(); i++) {
+                    int quantity = batch.get(i).quantity();
+                    if (quantity <= remaining) {
+                        granted[i] = true;
+                        remaining -= quantity;
+                        grantedTotal += quantity;
+                    }
+                }
+
+                if (grantedTotal > 0) {
+                    invetoryRepository.decrementStockIfAvailable(productCode, grantedTotal);
+                }
+                return true;
+            }));
+
+            for (int i = 0; i < batch.size(); i++) {
+                if (exists) {
+                    batch.get(i).result().complete(granted[i]);
+                } else {
+                    batch.get(i).result().completeExceptionally(new RuntimeException(
+                            "No existe el producto por el codigo ingresado, prueba con otro codigo"));
+                }
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Petición encolada. {@code taken} lo marca el primero entre el lote que la toma y la espera
+     * que vence: así una petición retirada por tiempo nunca se descuenta.
+     */
+    private record PendingDecrement(int quantity, CompletableFuture<Boolean> result, AtomicBoolean taken) {
+    }
+
+    /**
+     * Cola de descuentos de un producto. {@code scheduled} indica que ya hay un vaciado programado
+     * o en curso; {@code retired} que la cola se quitó del mapa y no debe recibir más peticiones.
+     */
+    private static final class SkuQueue {
+
+        private final ArrayDeque<PendingDecrement> pending = new ArrayDeque<>();
+
+        private boolean scheduled;
+
+        private boolean retired;
+    }
+}
@@ -0,0 +1,30 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory.services;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.useCase.InventoryUseCase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tarea programada que libera las reservas de stock abandonadas.
+ * Cada lote se toma con {@code FOR UPDATE SKIP LOCKED}, así varias réplicas pueden barrer a la vez.
+ */
+@Component
+@RequiredArgsConstructor
+public class StockHoldSweeper {
+
+    private final InventoryUseCase inventoryUseCase;
+
+    @Value("${msvc.inventory.holds.sweep-batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${msvc.inventory.holds.sweep-interval:10s}")
+    public void sweep() {
+        int expired;
+        do {
+            expired = inventoryUseCase.expireReservations(batchSize);
+        } while (expired == batchSize);
+    }
+}
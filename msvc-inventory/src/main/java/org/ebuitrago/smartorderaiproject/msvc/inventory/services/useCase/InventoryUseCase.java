@@ -2,10 +2,17 @@ package org.ebuitrago.smartorderaiproject.msvc.inventory.services.useCase;
 
 import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
 import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.InventoryResponseDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncResultDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.StockItemDto;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Caso de uso que define las operaciones de negocio relacionadas con el inventario.
@@ -31,7 +38,7 @@ public interface InventoryUseCase {
     List<InventoryEntity> getAllByProductCode(String productCode);
 
     /**
-     * Obtiene la cantidad disponible en inventario de un producto.
+     * Obtiene la cantidad disponible en inventario de un producto, descontando la reservada.
      *
      * @param productCode código único del producto.
      * @return cantidad disponible, si el producto existe.
@@ -46,12 +53,59 @@ public interface InventoryUseCase {
      */
     InventoryEntity createOrUpdateInvetory(InventoryResponseDto newProduct);
 
+    /**
+     * Crea o actualiza en una sola sentencia el inventario de muchos productos,
+     * por ejemplo para la carga inicial del catálogo.
+     *
+     * @param newProducts datos de los inventarios a registrar o actualizar.
+     * @return los inventarios creados o actualizados.
+     */
+    List<InventoryEntity> createOrUpdateInventories(List<InventoryResponseDto> newProducts);
+
 
     Optional<BigDecimal> getUnitPriceByProductCode(String productCode);
 
 
+    /**
+     * Obtiene en una sola consulta el precio unitario de varios productos.
+     *
+     * @param productCodes códigos de los productos a consultar.
+     * @return mapa código de producto → precio unitario.
+     * @throws RuntimeException si alguno de los productos no existe.
+     */
+    Map<String, BigDecimal> getUnitPricesByProductCodes(List<String> productCodes);
+
+
     InventoryEntity decrementInventory(String productCode, Integer quantity);
 
+    /**
+     * Descuenta el stock de varios productos dentro de una misma transacción.
+     * Si algún producto no existe o no tiene stock suficiente no se descuenta ninguno.
+     *
+     * @param items líneas con el código del producto y la cantidad a descontar.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si algún producto no existe o no hay stock disponible.
+     */
+    List<InventoryEntity> decrementInventoryBatch(List<StockItemDto> items);
+
+    /**
+     * Reintegra en una misma transacción el stock de varios productos.
+     * Se usa para compensar un descuento cuando la orden no llega a registrarse.
+     *
+     * @param items líneas con el código del producto y la cantidad a reintegrar.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si algún producto no existe.
+     */
+    List<InventoryEntity> incrementInventoryBatch(List<StockItemDto> items);
+
+    /**
+     * Aplica, en orden, un lote de cambios del catálogo de productos, hasta el primero que falle.
+     *
+     * @param events cambios del catálogo en el orden en que ocurrieron.
+     * @return cuántos cambios se aplicaron y, si uno falló, el motivo.
+     */
+    ProductSyncResultDto syncProducts(List<ProductSyncDto> events);
+
     /**
      * Elimina un registro de inventario según el código del producto.
      *
@@ -59,5 +113,49 @@ public interface InventoryUseCase {
      * @return {@code true} si la eliminación fue exitosa; {@code false} en caso contrario.
      */
     Boolean deleteByProductCode(String productCode);
-}
 
+    /**
+     * Aparta stock de varios productos por un tiempo limitado, sin descontarlo todavía.
+     *
+     * @param request productos a reservar y duración opcional de la reserva.
+     * @return la reserva creada, con su identificador y vencimiento.
+     * @throws RuntimeException si algún producto no existe o no hay stock disponible.
+     */
+    ReservationDto reserveStock(ReservationRequestDto request);
+
+    /**
+     * Descuenta de forma definitiva el stock de una reserva activa.
+     *
+     * @param holdId identificador de la reserva.
+     * @return los inventarios actualizados.
+     * @throws RuntimeException si la reserva no existe o ya expiró.
+     */
+    List<InventoryEntity> confirmReservation(UUID holdId);
+
+    /**
+     * Libera el stock de una reserva activa.
+     *
+     * @param holdId identificador de la reserva.
+     * @return {@code true} si se liberó.
+     * @throws RuntimeException si la reserva no existe.
+     */
+    Boolean releaseReservation(UUID holdId);
+
+    /**
+     * Libera un lote de reservas vencidas.
+     *
+     * @param limit cantidad máxima de líneas de reserva a liberar.
+     * @return la cantidad de líneas liberadas.
+     */
+    Integer expireReservations(int limit);
+
+    /**
+     * Cambia la cantidad de shards de stock de un producto caliente.
+     *
+     * @param productCode código único del producto.
+     * @param shardCount cantidad de shards ({@code 0} para desactivarlos).
+     * @return el inventario con su stock total.
+     * @throws RuntimeException si el producto no existe o la cantidad no es válida.
+     */
+    InventoryEntity configureShards(String productCode, Integer shardCount);
+}
@@ -0,0 +1,6 @@
+-- product_code debe ser único para que el alta de inventario sea un INSERT ... ON CONFLICT.
+-- Antes de crear el índice se fusionan los duplicados que pudieron quedar de altas concurrentes:
+-- la fila de menor id se queda con la suma del stock y las demás se borran.
+UPDATE inventory i SET stock_quantity = d.total FROM (SELECT MIN(id) AS keep_id, SUM(stock_quantity) AS total FROM inventory GROUP BY product_code HAVING COUNT(*) > 1) d WHERE i.id = d.keep_id;
+DELETE FROM inventory i USING inventory k WHERE i.product_code = k.product_code AND i.id > k.id;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_inventory_product_code ON inventory (product_code);
@@ -0,0 +1,105 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ProductSyncResultDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InventoryShardRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.ProcessedProductEventRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.StockHoldRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.InventoryServiceImpl;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.ShardedStock;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.StockDecrementCombiner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de la sincronización del catálogo de {@link InventoryServiceImpl}: descarte de
+ * eventos ya aplicados y aislamiento del cambio que falla. Los repositorios son mocks.
+ */
+class InventoryProductSyncTests {
+
+    private InvetoryRepository invetoryRepository;
+
+    private ProcessedProductEventRepository processedProductEventRepository;
+
+    private ShardedStock shardedStock;
+
+    private InventoryServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        invetoryRepository = mock(InvetoryRepository.class);
+        processedProductEventRepository = mock(ProcessedProductEventRepository.class);
+        shardedStock = mock(ShardedStock.class);
+
+        service = new InventoryServiceImpl(invetoryRepository, mock(LoadingCache.class),
+                mock(StockDecrementCombiner.class), mock(StockHoldRepository.class),
+                mock(InventoryShardRepository.class), shardedStock, processedProductEventRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+    }
+
+    @Test
+    void redeliveredCreationDoesNotAddStockAgain() {
+
+        when(processedProductEventRepository.markProcessed(1L)).thenReturn(false);
+        when(processedProductEventRepository.markProcessed(2L)).thenReturn(true);
+
+        ProductSyncResultDto result = service.syncProducts(List.of(created(1L, "A"), created(2L, "B")));
+
+        assertEquals(2, result.getApplied());
+        assertNull(result.getError());
+        verify(invetoryRepository, never()).upsert("A", 1, BigDecimal.ONE);
+        verify(invetoryRepository).upsert("B", 1, BigDecimal.ONE);
+    }
+
+    @Test
+    void failingEventIsReportedAndLaterEventsAreNotApplied() {
+
+        when(processedProductEventRepository.markProcessed(any())).thenReturn(true);
+        when(invetoryRepository.updateProductData("B", "A", BigDecimal.ONE))
+                .thenThrow(new RuntimeException("duplicate key value violates unique constraint"));
+
+        ProductSyncResultDto result = service.syncProducts(List.of(created(1L, "C"),
+                new ProductSyncDto(2L, ProductSyncDto.PRODUCT_UPDATED, "A", "B", BigDecimal.ONE),
+                created(3L, "D")));
+
+        assertEquals(1, result.getApplied());
+        assertTrue(result.getError().contains("unique constraint"));
+        // C se aplica en el intento del lote completo (revertido) y otra vez al aplicar de a uno.
+        verify(invetoryRepository, times(2)).upsert("C", 1, BigDecimal.ONE);
+        verify(invetoryRepository, never()).upsert("D", 1, BigDecimal.ONE);
+    }
+
+    @Test
+    void deletionDecrementsThroughShards() {
+
+        when(processedProductEventRepository.markProcessed(1L)).thenReturn(true);
+
+        service.syncProducts(List.of(new ProductSyncDto(1L, ProductSyncDto.PRODUCT_DELETED, "HOT-1", null, null)));
+
+        verify(shardedStock).decrement("HOT-1", 1);
+        verify(invetoryRepository, never()).decrementStockIfAvailable(any(), any());
+    }
+
+    private static ProductSyncDto created(Long eventId, String productCode) {
+        return new ProductSyncDto(eventId, ProductSyncDto.PRODUCT_CREATED, productCode, null, BigDecimal.ONE);
+    }
+}
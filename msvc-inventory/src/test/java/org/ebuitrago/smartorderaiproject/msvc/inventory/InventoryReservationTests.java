@@ -0,0 +1,176 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.StockHoldEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.ReservationRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.dto.StockItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InventoryShardRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.ProcessedProductEventRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.StockHoldRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.InventoryServiceImpl;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.ShardedStock;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.StockDecrementCombiner;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas del ciclo de vida de las reservas de stock de {@link InventoryServiceImpl}:
+ * reservar, confirmar y liberar por vencimiento. Los repositorios son mocks.
+ */
+class InventoryReservationTests {
+
+    private final UUID holdId = UUID.randomUUID();
+
+    private InvetoryRepository invetoryRepository;
+
+    private StockHoldRepository stockHoldRepository;
+
+    private ShardedStock shardedStock;
+
+    private InventoryServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+
+        invetoryRepository = mock(InvetoryRepository.class);
+        stockHoldRepository = mock(StockHoldRepository.class);
+        shardedStock = mock(ShardedStock.class);
+
+        service = new InventoryServiceImpl(invetoryRepository, mock(LoadingCache.class),
+                mock(StockDecrementCombiner.class), stockHoldRepository, mock(InventoryShardRepository.class),
+                shardedStock, mock(ProcessedProductEventRepository.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(service, "holdTtl", Duration.ofMinutes(15));
+        ReflectionTestUtils.setField(service, "maxHoldTtl", Duration.ofHours(2));
+    }
+
+    @Test
+    void reserveGroupsItemsAndRetriesAfterConsolidatingShards() {
+
+        when(invetoryRepository.reserveStock("A", 3)).thenReturn(1);
+        when(invetoryRepository.reserveStock("B", 2)).thenReturn(0, 1);
+        when(shardedStock.consolidate("B")).thenReturn(5);
+
+        ReservationDto reservation = service.reserveStock(new ReservationRequestDto(List.of(
+                new StockItemDto("B", 2), new StockItemDto("A", 1), new StockItemDto("A", 2)), null));
+
+        InOrder order = inOrder(invetoryRepository, shardedStock);
+        order.verify(invetoryRepository).reserveStock("A", 3);
+        order.verify(invetoryRepository).reserveStock("B", 2);
+        order.verify(shardedStock).consolidate("B");
+        order.verify(invetoryRepository).reserveStock("B", 2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<StockHoldEntity>> saved = ArgumentCaptor.forClass(List.class);
+        verify(stockHoldRepository).saveAll(saved.capture());
+        assertEquals(List.of("A", "B"), saved.getValue().stream().map(StockHoldEntity::getProductCode).toList());
+        assertTrue(saved.getValue().stream().allMatch(hold -> hold.getHoldId().equals(reservation.getHoldId())));
+        assertTrue(reservation.getExpiresAt().isAfter(Instant.now().plus(Duration.ofMinutes(14))));
+    }
+
+    @Test
+    void reserveFailsWhenStockIsMissingEvenAfterConsolidating() {
+
+        when(invetoryRepository.reserveStock("A", 1)).thenReturn(0);
+        when(shardedStock.consolidate("A")).thenReturn(0);
+        when(invetoryRepository.existsByProductCode("A")).thenReturn(true);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.reserveStock(
+                new ReservationRequestDto(List.of(new StockItemDto("A", 1)), null)));
+
+        assertTrue(error.getMessage().contains("No hay stock disponible"));
+        verify(stockHoldRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reserveRejectsTtlAboveMaximum() {
+        assertThrows(RuntimeException.class, () -> service.reserveStock(
+                new ReservationRequestDto(List.of(new StockItemDto("A", 1)), Duration.ofHours(3))));
+    }
+
+    @Test
+    void confirmConsumesReservedStockAndDeletesHolds() {
+
+        List<StockHoldEntity> holds = List.of(hold("A", 2, Duration.ofMinutes(5)), hold("B", 1, Duration.ofMinutes(5)));
+        when(stockHoldRepository.lockByHoldId(holdId)).thenReturn(holds);
+
+        service.confirmReservation(holdId);
+
+        verify(invetoryRepository).confirmReserved("A", 2);
+        verify(invetoryRepository).confirmReserved("B", 1);
+        verify(stockHoldRepository).deleteAll(holds);
+        verify(invetoryRepository, never()).releaseReserved(anyString(), anyInt());
+    }
+
+    @Test
+    void confirmRejectsExpiredReservation() {
+
+        List<StockHoldEntity> holds = List.of(hold("A", 2, Duration.ofMinutes(5)), hold("B", 1, Duration.ofSeconds(-1)));
+        when(stockHoldRepository.lockByHoldId(holdId)).thenReturn(holds);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> service.confirmReservation(holdId));
+
+        assertTrue(error.getMessage().contains("expiró"));
+        verify(invetoryRepository, never()).confirmReserved(anyString(), anyInt());
+        verify(stockHoldRepository, never()).deleteAll(any());
+    }
+
+    @Test
+    void expireReleasesQuantitiesPerProductInCodeOrder() {
+
+        List<StockHoldEntity> holds = List.of(hold("B", 1, Duration.ofSeconds(-5)), hold("A", 2, Duration.ofSeconds(-5)),
+                hold("B", 4, Duration.ofSeconds(-1)));
+        when(stockHoldRepository.lockExpired(100)).thenReturn(holds);
+
+        assertEquals(3, service.expireReservations(100));
+
+        InOrder order = inOrder(invetoryRepository, stockHoldRepository);
+        order.verify(invetoryRepository).releaseReserved("A", 2);
+        order.verify(invetoryRepository).releaseReserved("B", 5);
+        order.verify(stockHoldRepository).deleteAll(holds);
+    }
+
+    @Test
+    void expireWithNothingDueTouchesNothing() {
+
+        when(stockHoldRepository.lockExpired(100)).thenReturn(List.of());
+
+        assertEquals(0, service.expireReservations(100));
+        verify(invetoryRepository, never()).releaseReserved(anyString(), anyInt());
+        verify(stockHoldRepository, never()).deleteAll(any());
+    }
+
+    private StockHoldEntity hold(String productCode, int quantity, Duration expiresIn) {
+        StockHoldEntity hold = new StockHoldEntity();
+        hold.setHoldId(holdId);
+        hold.setProductCode(productCode);
+        hold.setQuantity(quantity);
+        hold.setExpiresAt(Instant.now().plus(expiresIn));
+        return hold;
+    }
+}
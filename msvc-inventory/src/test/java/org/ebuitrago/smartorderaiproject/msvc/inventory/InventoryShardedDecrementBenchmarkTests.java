@@ -0,0 +1,184 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de descuentos concurrentes de stock sobre un único producto en PostgreSQL.
+ * <p>
+ * Compara el descuento condicional sobre una sola fila, donde todas las transacciones
+ * esperan el mismo bloqueo, contra el descuento de un shard elegido al azar entre los que
+ * no están bloqueados ({@code FOR UPDATE SKIP LOCKED}) con 4 y 16 shards. Cada descuento
+ * se confirma en su propia transacción, como una compra real.
+ * </p>
+ * <p>
+ * Necesita una base de datos real, por lo que solo se ejecuta si se indica la URL:
+ * {@code mvn test -pl msvc-inventory -Dtest=InventoryShardedDecrementBenchmarkTests
+ * -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5434/msvc_inventory
+ * -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=12345}
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class InventoryShardedDecrementBenchmarkTests {
+
+    private static final int THREADS = 32;
+
+    private static final int DECREMENTS_PER_THREAD = 500;
+
+    private static final int INITIAL_STOCK = 1_000_000;
+
+    private static final String PRODUCT_CODE = "HOT-1";
+
+    private static final String INVENTORY_TABLE = "bench_inventory";
+
+    private static final String SHARDS_TABLE = "bench_inventory_shards";
+
+    @Test
+    void decrementThroughputSingleRowVsShards() throws Exception {
+
+        String url = System.getProperty("benchmark.jdbc.url");
+        String user = System.getProperty("benchmark.jdbc.user", "postgres");
+        String password = System.getProperty("benchmark.jdbc.password", "");
+
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            createTables(con);
+        }
+
+        try {
+            int decrements = THREADS * DECREMENTS_PER_THREAD;
+
+            long singleRowNanos = run(url, user, password, 0);
+            long fourShardsNanos = run(url, user, password, 4);
+            long sixteenShardsNanos = run(url, user, password, 16);
+
+            System.out.printf("Una sola fila:  %,8d ms  %,10.0f descuentos/s%n",
+                    singleRowNanos / 1_000_000, decrements / (singleRowNanos / 1e9));
+            System.out.printf("4 shards:       %,8d ms  %,10.0f descuentos/s%n",
+                    fourShardsNanos / 1_000_000, decrements / (fourShardsNanos / 1e9));
+            System.out.printf("16 shards:      %,8d ms  %,10.0f descuentos/s%n",
+                    sixteenShardsNanos / 1_000_000, decrements / (sixteenShardsNanos / 1e9));
+        } finally {
+            try (Connection con = DriverManager.getConnection(url, user, password);
+                 Statement st = con.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS " + SHARDS_TABLE);
+                st.execute("DROP TABLE IF EXISTS " + INVENTORY_TABLE);
+            }
+        }
+    }
+
+    /**
+     * Reparte el stock inicial entre la fila principal y los shards, lanza los hilos
+     * y comprueba que el stock total bajó exactamente lo descontado.
+     */
+    private long run(String url, String user, String password, int shardCount) throws Exception {
+
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            reset(con, shardCount);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                try (Connection con = DriverManager.getConnection(url, user, password)) {
+                    start.await();
+                    for (int d = 0; d < DECREMENTS_PER_THREAD; d++) {
+                        decrement(con, shardCount);
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - begin;
+        executor.shutdown();
+
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            assertEquals(INITIAL_STOCK - THREADS * DECREMENTS_PER_THREAD, totalStock(con));
+        }
+
+        return elapsed;
+    }
+
+    /**
+     * Con shards intenta primero un shard libre al azar y, si no hay ninguno con stock,
+     * descuenta de la fila principal, igual que {@code ShardedStock}.
+     */
+    private static void decrement(Connection con, int shardCount) throws SQLException {
+
+        if (shardCount > 0) {
+            try (PreparedStatement ps = con.prepareStatement("UPDATE " + SHARDS_TABLE +
+                    " SET quantity = quantity - 1 WHERE (product_code, shard) = (SELECT s.product_code, s.shard FROM " +
+                    SHARDS_TABLE + " s WHERE s.product_code = ? AND s.quantity >= 1 " +
+                    "ORDER BY random() LIMIT 1 FOR UPDATE SKIP LOCKED) AND quantity >= 1")) {
+                ps.setString(1, PRODUCT_CODE);
+                if (ps.executeUpdate() > 0) {
+                    return;
+                }
+            }
+        }
+
+        try (PreparedStatement ps = con.prepareStatement("UPDATE " + INVENTORY_TABLE +
+                " SET stock_quantity = stock_quantity - 1 WHERE product_code = ? AND stock_quantity >= 1")) {
+            ps.setString(1, PRODUCT_CODE);
+            assertEquals(1, ps.executeUpdate());
+        }
+    }
+
+    private static void createTables(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + SHARDS_TABLE);
+            st.execute("DROP TABLE IF EXISTS " + INVENTORY_TABLE);
+            st.execute("CREATE TABLE " + INVENTORY_TABLE + " (product_code varchar(255) PRIMARY KEY, " +
+                    "stock_quantity integer NOT NULL)");
+            st.execute("CREATE TABLE " + SHARDS_TABLE + " (product_code varchar(255) NOT NULL, " +
+                    "shard integer NOT NULL, quantity integer NOT NULL, PRIMARY KEY (product_code, shard))");
+        }
+    }
+
+    private static void reset(Connection con, int shardCount) throws SQLException {
+
+        int share = INITIAL_STOCK / (shardCount + 1);
+
+        try (Statement st = con.createStatement()) {
+            st.execute("TRUNCATE " + SHARDS_TABLE + ", " + INVENTORY_TABLE);
+            st.execute("INSERT INTO " + INVENTORY_TABLE + " VALUES ('" + PRODUCT_CODE + "', " +
+                    (INITIAL_STOCK - shardCount * share) + ")");
+            if (shardCount > 0) {
+                st.execute("INSERT INTO " + SHARDS_TABLE + " SELECT '" + PRODUCT_CODE + "', g, " + share +
+                        " FROM generate_series(0, " + (shardCount - 1) + ") AS g");
+            }
+        }
+    }
+
+    private static int totalStock(Connection con) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT (SELECT stock_quantity FROM " + INVENTORY_TABLE + ") + " +
+                     "(SELECT COALESCE(SUM(quantity), 0) FROM " + SHARDS_TABLE + ")")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory;
+
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.domain.InventoryShardEntity;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InventoryShardRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.ShardedStock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link ShardedStock}: orden de descuento, consolidación de los shards en la
+ * fila principal, reparto del stock al configurar y rebalanceo. Los repositorios son mocks.
+ */
+class ShardedStockTests {
+
+    private static final String PRODUCT_CODE = "HOT-1";
+
+    private InvetoryRepository invetoryRepository;
+
+    private InventoryShardRepository inventoryShardRepository;
+
+    private ShardedStock shardedStock;
+
+    @BeforeEach
+    void setUp() {
+
+        invetoryRepository = mock(InvetoryRepository.class);
+        inventoryShardRepository = mock(InventoryShardRepository.class);
+
+        shardedStock = new ShardedStock(invetoryRepository, inventoryShardRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+        ReflectionTestUtils.setField(shardedStock, "maxShards", 64);
+    }
+
+    @Test
+    void hotProductDecrementsFromShardWithoutTouchingMainRow() {
+
+        markHot(4);
+        when(inventoryShardRepository.decrementRandomShard(PRODUCT_CODE, 1)).thenReturn(1);
+
+        assertTrue(shardedStock.isHot(PRODUCT_CODE));
+        assertTrue(shardedStock.decrement(PRODUCT_CODE, 1));
+        verify(invetoryRepository, never()).decrementStockIfAvailable(anyString(), anyInt());
+    }
+
+    @Test
+    void coldProductNeverLooksAtShardsWhenMainRowHasStock() {
+
+        when(invetoryRepository.decrementStockIfAvailable(PRODUCT_CODE, 1)).thenReturn(1);
+
+        assertTrue(shardedStock.decrement(PRODUCT_CODE, 1));
+        verify(inventoryShardRepository, never()).decrementRandomShard(anyString(), anyInt());
+        verify(inventoryShardRepository, never()).lockByProductCode(anyString());
+    }
+
+    @Test
+    void decrementConsolidatesShardsWhenNoRowCoversTheQuantity() {
+
+        markHot(2);
+        when(inventoryShardRepository.decrementRandomShard(PRODUCT_CODE, 4)).thenReturn(0);
+        when(invetoryRepository.decrementStockIfAvailable(PRODUCT_CODE, 4)).thenReturn(0, 1);
+        when(invetoryRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(inventory(1, 0, 2)));
+        when(inventoryShardRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(List.of(shard(0, 2), shard(1, 3)));
+
+        assertTrue(shardedStock.decrement(PRODUCT_CODE, 4));
+
+        InOrder order = inOrder(invetoryRepository, inventoryShardRepository);
+        order.verify(invetoryRepository).lockByProductCode(PRODUCT_CODE);
+        order.verify(inventoryShardRepository).lockByProductCode(PRODUCT_CODE);
+        verify(inventoryShardRepository).setQuantity(PRODUCT_CODE, 0, 0);
+        verify(inventoryShardRepository).setQuantity(PRODUCT_CODE, 1, 0);
+        verify(invetoryRepository).incrementStock(PRODUCT_CODE, 5);
+    }
+
+    @Test
+    void decrementFailsWhenShardsAreEmpty() {
+
+        when(invetoryRepository.decrementStockIfAvailable(PRODUCT_CODE, 4)).thenReturn(0);
+        when(invetoryRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(inventory(1, 0, 0)));
+        when(inventoryShardRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(List.of());
+
+        assertFalse(shardedStock.decrement(PRODUCT_CODE, 4));
+        verify(invetoryRepository, never()).incrementStock(anyString(), anyInt());
+    }
+
+    @Test
+    void consolidateSkipsUnknownProduct() {
+
+        when(invetoryRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(Optional.empty());
+
+        assertEquals(0, shardedStock.consolidate(PRODUCT_CODE));
+        verify(inventoryShardRepository, never()).lockByProductCode(anyString());
+    }
+
+    @Test
+    void configureSpreadsFreeStockAndKeepsReservedInMainRow() {
+
+        when(invetoryRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(inventory(10, 2, 0)));
+        when(inventoryShardRepository.lockByProductCode(PRODUCT_CODE)).thenReturn(List.of());
+        when(invetoryRepository.getByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(inventory(4, 2, 3)));
+        when(inventoryShardRepository.sumByProductCode(PRODUCT_CODE)).thenReturn(6L);
+
+        InventoryEntity configured = shardedStock.configure(PRODUCT_CODE, 3);
+
+        verify(inventoryShardRepository).deleteFrom(PRODUCT_CODE, 3);
+        verify(invetoryRepository).setShardCount(PRODUCT_CODE, 3);
+        verify(inventoryShardRepository).createMissing(PRODUCT_CODE, 3);
+        for (int shard = 0; shard < 3; shard++) {
+            verify(inventoryShardRepository).setQuantity(PRODUCT_CODE, shard, 2);
+        }
+        verify(invetoryRepository).setStockQuantity(PRODUCT_CODE, 4);
+        assertEquals(10, configured.getStockQuantity());
+        assertTrue(shardedStock.isHot(PRODUCT_CODE));
+    }
+
+    @Test
+    void configureRejectsOutOfRangeShardCount() {
+
+        assertThrows(RuntimeException.class, () -> shardedStock.configure(PRODUCT_CODE, -1));
+        assertThrows(RuntimeException.class, () -> shardedStock.configure(PRODUCT_CODE, 65));
+        verify(invetoryRepository, never()).lockByProductCode(anyString());
+    }
+
+    @Test
+    void rebalanceRefillsDrainedShard() {
+
+        when(invetoryRepository.getShardedProducts()).thenReturn(List.of(inventory(3, 0, 3)));
+        when(invetoryRepository.tryLockByProductCode(PRODUCT_CODE)).thenReturn(Optional.of(inventory(3, 0, 3)));
+        when(inventoryShardRepository.tryLockByProductCode(PRODUCT_CODE))
+                .thenReturn(List.of(shard(0, 0), shard(1, 5), shard(2, 5)));
+
+        shardedStock.rebalanceAll();
+
+        for (int shard = 0; shard < 3; shard++) {
+            verify(inventoryShardRepository).setQuantity(PRODUCT_CODE, shard, 3);
+        }
+        verify(invetoryRepository).setStockQuantity(PRODUCT_CODE, 4);
+    }
+
+    @Test
+    void withTotalStockAddsShardsOnACopy() {
+
+        InventoryEntity cold = inventory(7, 0, 0);
+        assertSame(cold, shardedStock.withTotalStock(cold));
+
+        InventoryEntity hot = inventory(7, 0, 2);
+        when(inventoryShardRepository.sumByProductCode(PRODUCT_CODE)).thenReturn(5L);
+
+        InventoryEntity total = shardedStock.withTotalStock(hot);
+
+        assertNotSame(hot, total);
+        assertEquals(12, total.getStockQuantity());
+        assertEquals(7, hot.getStockQuantity());
+    }
+
+    /**
+     * Hace que la instancia vea el producto como caliente, igual que tras una ronda de rebalanceo.
+     */
+    private void markHot(int shardCount) {
+        when(invetoryRepository.getShardedProducts()).thenReturn(List.of(inventory(0, 0, shardCount)));
+        when(invetoryRepository.tryLockByProductCode(PRODUCT_CODE)).thenReturn(Optional.empty());
+        shardedStock.rebalanceAll();
+    }
+
+    private static InventoryEntity inventory(int stockQuantity, int reservedQuantity, int shardCount) {
+        InventoryEntity inventory = new InventoryEntity();
+        inventory.setProductCode(PRODUCT_CODE);
+        inventory.setStockQuantity(stockQuantity);
+        inventory.setReservedQuantity(reservedQuantity);
+        inventory.setShardCount(shardCount);
+        return inventory;
+    }
+
+    private static InventoryShardEntity shard(int shard, int quantity) {
+        InventoryShardEntity entity = new InventoryShardEntity();
+        entity.setProductCode(PRODUCT_CODE);
+        entity.setShard(shard);
+        entity.setQuantity(quantity);
+        return entity;
+    }
+}
@@ -0,0 +1,289 @@
+package org.ebuitrago.smartorderaiproject.msvc.inventory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.repositories.InvetoryRepository;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.ShardedStock;
+import org.ebuitrago.smartorderaiproject.msvc.inventory.services.StockDecrementCombiner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pruebas de {@link StockDecrementCombiner} sin base de datos: el repositorio es un doble
+ * que lleva el stock de un producto en memoria.
+ * <p>
+ * Para controlar qué peticiones forman cada lote, la primera actualización queda detenida
+ * en {@code gate}: mientras tanto las demás peticiones se encolan en el orden en que se
+ * envían, y forman el lote siguiente al abrir la compuerta.
+ * </p>
+ */
+class StockDecrementCombinerTests {
+
+    private static final String PRODUCT_CODE = "P-1";
+
+    private final AtomicInteger stock = new AtomicInteger();
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+
+    private final AtomicBoolean holdFirstUpdate = new AtomicBoolean();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private InvetoryRepository invetoryRepository;
+
+    private ShardedStock shardedStock;
+
+    private StockDecrementCombiner combiner;
+
+    @BeforeEach
+    void setUp() {
+
+        invetoryRepository = mock(InvetoryRepository.class);
+        shardedStock = mock(ShardedStock.class);
+
+        when(invetoryRepository.decrementStockIfAvailable(eq(PRODUCT_CODE), anyInt())).thenAnswer(invocation -> {
+            if (holdFirstUpdate.getAndSet(false)) {
+                gate.await();
+            }
+            int quantity = invocation.getArgument(1);
+            int current;
+            do {
+                current = stock.get();
+                if (current < quantity) {
+                    return 0;
+                }
+            } while (!stock.compareAndSet(current, current - quantity));
+            return 1;
+        });
+        when(invetoryRepository.lockStockByProductCode(PRODUCT_CODE)).thenAnswer(invocation -> Optional.of(stock.get()));
+        when(invetoryRepository.lockStockByProductCode("NO-EXISTE")).thenReturn(Optional.empty());
+    }
+
+    @AfterEach
+    void tearDown() {
+        gate.countDown();
+        callers.shutdownNow();
+        if (combiner != null) {
+            combiner.shutdown();
+        }
+    }
+
+    @Test
+    void grantsPartialBatchInArrivalOrder() throws Exception {
+
+        combiner = newCombiner(10);
+        stock.set(5);
+        holdFirstUpdate.set(true);
+
+        Future<Boolean> first = submitQueued(1);
+        Future<Boolean> three = submitQueued(3);
+        Future<Boolean> two = submitQueued(2);
+        Future<Boolean> one = submitQueued(1);
+
+        gate.countDown();
+
+        assertTrue(first.get(5, TimeUnit.SECONDS));
+        assertTrue(three.get(5, TimeUnit.SECONDS));
+        assertFalse(two.get(5, TimeUnit.SECONDS), "el 2 no cabe después del 3 aunque llegó antes que el 1");
+        assertTrue(one.get(5, TimeUnit.SECONDS));
+        assertEquals(0, stock.get());
+        verify(shardedStock).consolidate(PRODUCT_CODE);
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+
+        combiner = newCombiner(2);
+        stock.set(100);
+        holdFirstUpdate.set(true);
+
+        Future<Boolean> inFlight = submitQueued(1);
+        Future<Boolean> queued1 = submitQueued(1);
+        Future<Boolean> queued2 = submitQueued(1);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> combiner.decrement(PRODUCT_CODE, 1));
+        assertTrue(error.getMessage().contains("demasiadas solicitudes"));
+        assertEquals(1.0, meterRegistry.get("inventory.stock.decrement.rejected").counter().count());
+
+        gate.countDown();
+
+        assertTrue(inFlight.get(5, TimeUnit.SECONDS));
+        assertTrue(queued1.get(5, TimeUnit.SECONDS));
+        assertTrue(queued2.get(5, TimeUnit.SECONDS));
+        assertEquals(97, stock.get());
+    }
+
+    @Test
+    void failsForUnknownProduct() {
+
+        combiner = newCombiner(10);
+        when(invetoryRepository.decrementStockIfAvailable(eq("NO-EXISTE"), anyInt())).thenReturn(0);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> combiner.decrement("NO-EXISTE", 1));
+        assertTrue(error.getMessage().contains("No existe el producto"));
+    }
+
+    /**
+     * Con un solo hilo de vaciado ocupado, la petición de otro producto vence, falla y no se descuenta
+     * después aunque el hilo se libere.
+     */
+    @Test
+    void withdrawsRequestThatWaitsTooLong() throws Exception {
+
+        combiner = newCombiner(64, 10, Duration.ofMillis(200));
+        stock.set(10);
+        holdFirstUpdate.set(true);
+
+        Future<Boolean> blocker = submitQueued(1);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> combiner.decrement("OTRO", 1));
+        assertTrue(error.getMessage().contains("no se pudo aplicar a tiempo"));
+        assertEquals(1.0, meterRegistry.get("inventory.stock.decrement.timed-out").counter().count());
+
+        gate.countDown();
+
+        assertTrue(blocker.get(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        verify(invetoryRepository, never()).decrementStockIfAvailable(eq("OTRO"), anyInt());
+    }
+
+    /**
+     * Un producto con la cola llena aplica un lote por tarea: la petición de otro producto
+     * se atiende entre sus lotes y no al final.
+     */
+    @Test
+    void otherProductsAreServedBetweenBatchesOfABusyProduct() throws Exception {
+
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        when(invetoryRepository.decrementStockIfAvailable(eq("OTRO"), anyInt())).thenAnswer(invocation -> {
+            applied.add("OTRO");
+            return 1;
+        });
+        when(invetoryRepository.decrementStockIfAvailable(eq(PRODUCT_CODE), anyInt())).thenAnswer(invocation -> {
+            if (holdFirstUpdate.getAndSet(false)) {
+                gate.await();
+            }
+            applied.add(PRODUCT_CODE);
+            return 1;
+        });
+
+        combiner = newCombiner(1, 10, Duration.ofSeconds(5));
+        holdFirstUpdate.set(true);
+
+        List<Future<Boolean>> busy = new ArrayList<>();
+        busy.add(submitQueued(1));
+        for (int i = 0; i < 5; i++) {
+            busy.add(submitQueued(1));
+        }
+        Future<Boolean> other = callers.submit(() -> combiner.decrement("OTRO", 1));
+        Thread.sleep(50);
+
+        gate.countDown();
+
+        assertTrue(other.get(5, TimeUnit.SECONDS));
+        for (Future<Boolean> result : busy) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(7, applied.size());
+        assertTrue(applied.indexOf("OTRO") <= 2, "orden de aplicación: " + applied);
+    }
+
+    /**
+     * Muchos hilos descuentan a la vez, con colas que se retiran y se vuelven a crear todo el tiempo:
+     * ninguna petición debe quedar sin respuesta y se conceden exactamente las unidades disponibles.
+     */
+    @Test
+    void neverLosesRequestsWhileQueuesAreRetired() throws Exception {
+
+        combiner = newCombiner(1_000);
+        stock.set(300);
+
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            results.add(callers.submit(() -> combiner.decrement(PRODUCT_CODE, 1)));
+        }
+
+        int granted = 0;
+        for (Future<Boolean> result : results) {
+            if (result.get(10, TimeUnit.SECONDS)) {
+                granted++;
+            }
+        }
+
+        assertEquals(300, granted);
+        assertEquals(0, stock.get());
+    }
+
+    private StockDecrementCombiner newCombiner(int maxQueueDepth) {
+        return newCombiner(64, maxQueueDepth, Duration.ofSeconds(5));
+    }
+
+    private StockDecrementCombiner newCombiner(int maxBatch, int maxQueueDepth, Duration maxWait) {
+        return new StockDecrementCombiner(invetoryRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), shardedStock, meterRegistry,
+                true, Duration.ofMillis(1), maxBatch, maxQueueDepth, 1, maxWait);
+    }
+
+    /**
+     * Envía un descuento desde otro hilo y espera a que ese hilo quede bloqueado esperando
+     * su resultado, es decir, a que la petición ya esté encolada o en curso.
+     */
+    private Future<Boolean> submitQueued(int quantity) throws InterruptedException {
+
+        AtomicBoolean started = new AtomicBoolean();
+        Thread[] caller = new Thread[1];
+        CountDownLatch assigned = new CountDownLatch(1);
+
+        Future<Boolean> result = callers.submit(() -> {
+            caller[0] = Thread.currentThread();
+            assigned.countDown();
+            started.set(true);
+            return combiner.decrement(PRODUCT_CODE, quantity);
+        });
+
+        assigned.await();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!(started.get() && caller[0].getState() == Thread.State.TIMED_WAITING) || firstUpdatePending()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("El descuento no llegó a encolarse");
+            }
+            Thread.sleep(1);
+        }
+        return result;
+    }
+
+    /**
+     * La primera petición cuenta como encolada recién cuando el vaciado la tomó y quedó detenido en la compuerta.
+     */
+    private boolean firstUpdatePending() {
+        return holdFirstUpdate.get() && gate.getCount() > 0;
+    }
+}
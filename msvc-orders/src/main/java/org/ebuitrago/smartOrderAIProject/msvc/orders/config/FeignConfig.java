@@ -1,11 +1,17 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.config;
 
 
+import feign.Client;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 
@@ -17,19 +23,27 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
  * solicitudes salientes hacia otros microservicios.
  */
 @Configuration
+@EnableConfigurationProperties(HttpClientPoolProperties.class)
 public class FeignConfig {
 
+    /**
+     * Registro OAuth2 (spring.security.oauth2.client.registration.*) con las credenciales del microservicio.
+     */
+    private static final String SERVICE_CLIENT_REGISTRATION = "msvc-orders";
+
     /**
      * Interceptor que añade el header Authorization con el token Bearer
      * obtenido del contexto de seguridad actual.
      *
      * Permite mantener la autenticación entre microservicios cuando
-     * se utiliza Spring Security con JWT.
+     * se utiliza Spring Security con JWT. Si no hay un usuario autenticado
+     * (tareas en segundo plano), usa el token del propio microservicio.
      *
+     * @param authorizedClientManager gestor del token client_credentials del microservicio
      * @return RequestInterceptor configurado
      */
     @Bean
-    public RequestInterceptor requestInterceptor() {
+    public RequestInterceptor requestInterceptor(OAuth2AuthorizedClientManager authorizedClientManager) {
 
         return requestTemplate -> {
 
@@ -41,9 +55,35 @@ public class FeignConfig {
                 String token = jwt.getToken().getTokenValue();
 
                 requestTemplate.header("Authorization", "Bearer " + token);
+
+            } else {
+
+                OAuth2AuthorizedClient client = authorizedClientManager.authorize(
+                        OAuth2AuthorizeRequest.withClientRegistrationId(SERVICE_CLIENT_REGISTRATION)
+                                .principal(SERVICE_CLIENT_REGISTRATION)
+                                .build());
+
+                if (client != null) {
+                    requestTemplate.header("Authorization",
+                            "Bearer " + client.getAccessToken().getTokenValue());
+                }
             }
 
         };
     }
 
+    /**
+     * Cliente HTTP de Feign con un pool de conexiones por microservicio destino,
+     * en lugar del {@code HttpURLConnection} por defecto, que no reutiliza
+     * conexiones de forma controlada ni aplica tiempos de espera por destino.
+     *
+     * @param properties configuración de los pools por cliente Feign
+     * @param meterRegistry registro donde se publican las métricas de ocupación
+     * @return Client configurado
+     */
+    @Bean
+    public Client feignClient(HttpClientPoolProperties properties, MeterRegistry meterRegistry) {
+        return new PooledFeignClient(properties, meterRegistry);
+    }
+
 }
@@ -0,0 +1,50 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.config;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuración de las cachés en memoria del microservicio de órdenes.
+ */
+@Configuration
+public class OrderCacheConfig {
+
+    /**
+     * Caché acotada del historial de órdenes por usuario.
+     * <p>
+     * El tamaño máximo y el tiempo de vida se configuran con
+     * {@code msvc.cache.orders-by-user.*}. Las estadísticas de aciertos, fallos y
+     * expulsiones se publican en las métricas {@code cache.*} con la etiqueta
+     * {@code cache=ordersByUser}.
+     * </p>
+     *
+     * @param maximumSize cantidad máxima de usuarios en caché
+     * @param expireAfterWrite tiempo de vida de cada entrada
+     * @param meterRegistry registro donde se publican las estadísticas
+     * @return Cache configurada
+     */
+    @Bean
+    public Cache<String, List<OrderResponseDto>> ordersByUserCache(
+            @Value("${msvc.cache.orders-by-user.maximum-size:10000}") long maximumSize,
+            @Value("${msvc.cache.orders-by-user.expire-after-write:10m}") Duration expireAfterWrite,
+            MeterRegistry meterRegistry) {
+
+        Cache<String, List<OrderResponseDto>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "ordersByUser");
+    }
+}
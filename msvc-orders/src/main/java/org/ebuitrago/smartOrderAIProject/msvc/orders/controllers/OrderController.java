@@ -4,11 +4,16 @@ package org.ebuitrago.smartOrderAIProject.msvc.orders.controllers;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.services.IdempotencyService;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.services.usecase.IOrderServiceUseCase;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -32,14 +37,23 @@ public class OrderController {
 
     private final IOrderServiceUseCase iOrderServiceUseCase;
 
+    private final IdempotencyService idempotencyService;
+
     /**
-     * Obtiene la lista de todas las órdenes registradas en el sistema.
+     * Obtiene una página de las órdenes registradas en el sistema, de la más reciente a la más antigua.
      *
-     * @return una respuesta HTTP con el listado de {@link OrderEntity} y código 200 OK.
+     * @param cursor cursor opaco devuelto en la página anterior; se omite para la primera página.
+     * @param size cantidad de órdenes por página (con un máximo definido por el servicio).
+     * @return la página de órdenes con su cursor siguiente y código 200 OK, o un mensaje de error.
      */
     @GetMapping
-    public ResponseEntity<List<OrderEntity>> getAll() {
-        return ResponseEntity.ok(iOrderServiceUseCase.getAll());
+    public ResponseEntity<?> getAll(@RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.getAll(cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     /**
@@ -72,21 +86,159 @@ public class OrderController {
         }
     }
 
+    /**
+     * Obtiene una página de las órdenes realizadas entre dos fechas.
+     *
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @param cursor cursor opaco devuelto en la página anterior; se omite para la primera página.
+     * @param size cantidad de órdenes por página.
+     * @return la página de órdenes con código 200 OK o un mensaje de error.
+     */
+    @GetMapping("/date-range")
+    public ResponseEntity<?> getByDateRange(@RequestParam LocalDate from, @RequestParam LocalDate to,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.getByDateRange(from, to, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Busca órdenes combinando filtros opcionales por tienda, método de pago,
+     * rango de fechas y rango de total, de la más reciente a la más antigua.
+     *
+     * @param store nombre exacto de la tienda.
+     * @param paymentMethod método de pago exacto.
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @param minTotal total mínimo (inclusive).
+     * @param maxTotal total máximo (inclusive).
+     * @param cursor cursor opaco devuelto en la página anterior; se omite para la primera página.
+     * @param size cantidad de órdenes por página.
+     * @param count {@code estimate} para incluir el total aproximado de resultados; por defecto no se calcula.
+     * @return la página de órdenes con código 200 OK o un mensaje de error.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) String store,
+                                    @RequestParam(required = false) String paymentMethod,
+                                    @RequestParam(required = false) LocalDate from,
+                                    @RequestParam(required = false) LocalDate to,
+                                    @RequestParam(required = false) BigDecimal minTotal,
+                                    @RequestParam(required = false) BigDecimal maxTotal,
+                                    @RequestParam(required = false) String cursor,
+                                    @RequestParam(required = false) Integer size,
+                                    @RequestParam(defaultValue = "none") String count) {
+        try {
+            OrderSearchCriteriaDto criteria =
+                    new OrderSearchCriteriaDto(store, paymentMethod, from, to, minTotal, maxTotal);
+            return ResponseEntity.ok(iOrderServiceUseCase.search(criteria, cursor, size, "estimate".equals(count)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Obtiene las ventas por tienda y día de un rango de fechas.
+     *
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @param store tienda a consultar; si se omite se devuelven todas.
+     * @return las ventas diarias con código 200 OK o un mensaje de error.
+     */
+    @GetMapping("/revenue/daily")
+    public ResponseEntity<?> getDailyRevenue(@RequestParam LocalDate from, @RequestParam LocalDate to,
+                                             @RequestParam(required = false) String store) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.getDailyRevenue(store, from, to));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Recalcula el agregado diario de ventas de un rango de fechas (carga histórica o corrección).
+     *
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @return la cantidad de filas generadas con código 200 OK o un mensaje de error.
+     */
+    @PostMapping("/revenue/daily/rebuild")
+    public ResponseEntity<?> rebuildDailyRevenue(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.rebuildDailyRevenue(from, to));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Exporta las órdenes de un rango de fechas en formato NDJSON (una orden por línea).
+     * <p>
+     * La respuesta se escribe en streaming a medida que se leen las órdenes,
+     * por lo que la memoria usada no depende del tamaño del rango.
+     * </p>
+     *
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @return el flujo NDJSON con código 200 OK o un mensaje de error si el rango no es válido.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<?> export(@RequestParam LocalDate from, @RequestParam LocalDate to) {
+
+        if (from.isAfter(to)) {
+            return ResponseEntity.badRequest().body("La fecha inicial no puede ser posterior a la fecha final");
+        }
+
+        StreamingResponseBody body = out -> iOrderServiceUseCase.exportByDateRange(from, to, out);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     /**
      * Registra una nueva orden en el sistema.
      *
+     * Con el encabezado {@code Idempotency-Key}, un reintento con la misma clave devuelve
+     * la orden creada la primera vez en lugar de crear otra.
+     *
+     * @param idempotencyKey clave de idempotencia opcional enviada por el cliente.
      * @param orderEntity objeto {@link OrderEntity} con los datos de la orden a crear.
      * @param result contiene el resultado de la validación del objeto recibido.
      * @return la orden creada con código 201 CREATED o errores de validación.
      */
     @PostMapping
-    public ResponseEntity<?> save(@Valid @RequestBody OrderEntity orderEntity, BindingResult result) {
+    public ResponseEntity<?> save(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                  @Valid @RequestBody OrderEntity orderEntity, BindingResult result) {
         if (result.hasErrors()) {
             return validar(result);
         }
 
+        return idempotencyService.execute(idempotencyKey, "POST /orders", orderEntity, () -> {
+            try {
+                return ResponseEntity.status(HttpStatus.CREATED).body(iOrderServiceUseCase.save(orderEntity));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Registra en bloque un conjunto de órdenes (por ejemplo, el cierre diario de un punto de venta).
+     * <p>
+     * Cada orden se valida de forma individual: las inválidas no impiden registrar las demás.
+     * </p>
+     *
+     * @param orders arreglo de {@link OrderEntity} con los datos de las órdenes a crear.
+     * @return el resultado de cada orden con código 200 OK, o un mensaje de error si la petición no es válida.
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<?> saveAll(@RequestBody List<OrderEntity> orders) {
         try {
-            return ResponseEntity.status(HttpStatus.CREATED).body(iOrderServiceUseCase.save(orderEntity));
+            return ResponseEntity.ok(iOrderServiceUseCase.saveAll(orders));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -122,6 +274,22 @@ public class OrderController {
 
     }
 
+    /**
+     * Actualiza el total de varias órdenes en una sola sentencia.
+     * Lo usan msvc-products-orders y los procesos de conciliación.
+     *
+     * @param totals lista de pares (id de orden, total).
+     * @return la cantidad de órdenes actualizadas, o un mensaje de error si la petición no es válida.
+     */
+    @PutMapping("/totals")
+    public ResponseEntity<?> updateTotalPrices(@RequestBody List<OrderTotalDto> totals) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.updateTotalPrices(totals));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     /**
      * Elimina una orden del sistema dado su identificador único.
      *
@@ -154,6 +322,29 @@ public class OrderController {
     }
 
 
+    /**
+     * Obtiene una página de las órdenes de un usuario realizadas entre dos fechas.
+     *
+     * @param userId el numero de documento del usuario a buscar
+     * @param from fecha inicial en formato ISO-8601 (inclusive).
+     * @param to fecha final en formato ISO-8601 (inclusive).
+     * @param cursor cursor opaco devuelto en la página anterior; se omite para la primera página.
+     * @param size cantidad de órdenes por página.
+     * @return la página de órdenes del usuario con código 200 OK o un mensaje de error.
+     */
+    @GetMapping("/orders-by-user/{userId}/date-range")
+    public ResponseEntity<?> getOrdersByUserInRange(@PathVariable String userId,
+                                                    @RequestParam LocalDate from, @RequestParam LocalDate to,
+                                                    @RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size) {
+        try {
+            return ResponseEntity.ok(iOrderServiceUseCase.getOrdersByUserInRange(userId, from, to, cursor, size));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+
     /**
      * Método de utilidad para construir un mapa de errores de validación desde un {@link BindingResult}.
      *
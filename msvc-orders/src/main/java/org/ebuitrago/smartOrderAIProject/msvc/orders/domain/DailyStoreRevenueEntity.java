@@ -0,0 +1,53 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Agregado de ventas por tienda y día. Cada fila resume las órdenes de una tienda en una fecha
+ * y se mantiene de forma incremental cuando se crean, modifican o eliminan órdenes, de modo que
+ * los tableros no necesitan recorrer la tabla "orders".
+ */
+@Data
+@Entity
+@IdClass(DailyStoreRevenueEntity.Key.class)
+@Table(name = "daily_store_revenue",
+       indexes = @Index(name = "idx_daily_store_revenue_date", columnList = "date"))
+public class DailyStoreRevenueEntity {
+
+    @Id
+    private String store;
+
+    @Id
+    private LocalDate date;
+
+    /**
+     * Cantidad de órdenes de la tienda en el día.
+     */
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount;
+
+    /**
+     * Suma de los totales de esas órdenes.
+     */
+    @Column(name = "total_revenue", nullable = false)
+    private BigDecimal totalRevenue;
+
+    /**
+     * Llave compuesta (tienda, fecha).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String store;
+
+        private LocalDate date;
+    }
+}
@@ -12,18 +12,30 @@ import java.util.List;
  * Entidad que representa una orden dentro del sistema. Esta clase define la estructura
  * de la tabla "orders" en la base de datos y aplica restricciones de validación
  * para garantizar la integridad de los datos.
+ * <p>
+ * En la base de datos "orders" está particionada por rango mensual de {@code date}
+ * (ver {@code OrderPartitionManager}); su llave primaria física es (id, date).
+ * </p>
  */
 @Data
 @Entity
-@Table(name = "orders")
+@Table(name = "orders",
+       indexes = {
+               @Index(name = "idx_orders_date_id", columnList = "date, id"),
+               @Index(name = "idx_orders_user_id_date_id", columnList = "user_id, date, id"),
+               @Index(name = "idx_orders_store_date_id", columnList = "store, date, id"),
+               @Index(name = "idx_orders_payment_method_date_id", columnList = "payment_method, date, id")
+       })
 public class OrderEntity {
 
     /**
      * Identificador único de la orden.
-     * Es generado automáticamente por la base de datos.
+     * Se toma de la secuencia "orders_seq" en bloques de 50 (optimizador pooled),
+     * lo que permite a Hibernate agrupar las inserciones en lotes JDBC.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Integer id;
 
     /**
@@ -35,9 +47,10 @@ public class OrderEntity {
 
     /**
      * Fecha en que se realizó la orden.
-     * No puede ser nula.
+     * No puede ser nula: es la llave de partición de la tabla.
      */
     @NotNull(message = "La fecha de la orden es obligatoria")
+    @Column(nullable = false)
     private LocalDate date;
 
     /**
@@ -0,0 +1,79 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.Instant;
+
+/**
+ * Evento pendiente de enviar a otro microservicio (patrón transactional outbox).
+ * <p>
+ * Se guarda en la misma transacción que el cambio de la orden, de modo que el evento
+ * existe si y solo si el cambio se confirmó. Un proceso en segundo plano lo entrega
+ * y lo borra; mientras tanto la fila registra los intentos y el último error.
+ * </p>
+ */
+@Data
+@Entity
+@Table(name = "order_outbox",
+       indexes = @Index(name = "idx_order_outbox_next_attempt_at", columnList = "next_attempt_at"))
+public class OrderOutboxEntity {
+
+    /**
+     * La orden fue eliminada y deben eliminarse sus productos en msvc-products-orders.
+     */
+    public static final String ORDER_DELETED = "ORDER_DELETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * Tipo de evento, por ejemplo {@link #ORDER_DELETED}.
+     */
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    /**
+     * Identificador de la orden a la que se refiere el evento.
+     */
+    @Column(name = "aggregate_id", nullable = false)
+    private Integer aggregateId;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    /**
+     * Cantidad de intentos de entrega fallidos.
+     */
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /**
+     * Momento a partir del cual se puede volver a intentar la entrega.
+     * Es {@code null} cuando el evento se descartó y queda solo para revisión manual.
+     */
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    /**
+     * Crea un evento listo para entregarse de inmediato.
+     *
+     * @param eventType tipo de evento.
+     * @param aggregateId identificador de la orden.
+     * @return el evento sin guardar.
+     */
+    public static OrderOutboxEntity of(String eventType, Integer aggregateId) {
+        OrderOutboxEntity event = new OrderOutboxEntity();
+        Instant now = Instant.now();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setCreatedAt(now);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        return event;
+    }
+}
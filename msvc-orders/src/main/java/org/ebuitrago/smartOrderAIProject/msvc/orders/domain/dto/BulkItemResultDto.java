@@ -0,0 +1,48 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * Resultado de un elemento dentro de una operación en bloque.
+ * <p>
+ * Permite al cliente saber, para cada posición del arreglo enviado, si el elemento
+ * se procesó y con qué id, o por qué fue rechazado.
+ * </p>
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class BulkItemResultDto {
+
+    public static final String CREATED = "CREATED";
+
+    public static final String INVALID = "INVALID";
+
+    public static final String FAILED = "FAILED";
+
+    /**
+     * Posición del elemento en el arreglo recibido (desde 0).
+     */
+    private Integer index;
+
+    /**
+     * Identificador asignado, o {@code null} si el elemento no se procesó.
+     */
+    private Integer id;
+
+    /**
+     * Estado del elemento: {@link #CREATED}, {@link #INVALID} o {@link #FAILED}.
+     */
+    private String status;
+
+    /**
+     * Errores de validación o de persistencia por campo; vacío si el elemento se procesó.
+     */
+    private Map<String, String> errors;
+}
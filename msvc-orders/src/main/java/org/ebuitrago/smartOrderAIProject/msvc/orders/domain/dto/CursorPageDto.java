@@ -0,0 +1,34 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Página de resultados obtenida con paginación por cursor (keyset).
+ * <p>
+ * El cliente debe enviar {@code nextCursor} en la siguiente petición para continuar
+ * el recorrido; cuando es {@code null} no hay más resultados.
+ * </p>
+ *
+ * @param <T> tipo de los elementos de la página
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class CursorPageDto<T> {
+
+    /**
+     * Elementos de la página actual.
+     */
+    private List<T> items;
+
+    /**
+     * Cursor opaco para solicitar la página siguiente, o {@code null} si es la última.
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,39 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * DTO con las ventas de una tienda en un día.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class DailyStoreRevenueDto {
+
+    /**
+     * Nombre de la tienda.
+     */
+    private String store;
+
+    /**
+     * Día de las ventas.
+     */
+    private LocalDate date;
+
+    /**
+     * Cantidad de órdenes del día.
+     */
+    private Long orderCount;
+
+    /**
+     * Suma de los totales de las órdenes del día.
+     */
+    private BigDecimal totalRevenue;
+}
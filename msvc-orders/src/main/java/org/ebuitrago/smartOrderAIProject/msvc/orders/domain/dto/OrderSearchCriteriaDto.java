@@ -0,0 +1,50 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Filtros de la búsqueda de órdenes. Todos son opcionales y se combinan con AND;
+ * los rangos son inclusivos.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class OrderSearchCriteriaDto {
+
+    /**
+     * Nombre exacto de la tienda.
+     */
+    private String store;
+
+    /**
+     * Método de pago exacto (ejemplo: "tarjeta", "efectivo").
+     */
+    private String paymentMethod;
+
+    /**
+     * Fecha inicial del rango.
+     */
+    private LocalDate from;
+
+    /**
+     * Fecha final del rango.
+     */
+    private LocalDate to;
+
+    /**
+     * Total mínimo de la orden.
+     */
+    private BigDecimal minTotal;
+
+    /**
+     * Total máximo de la orden.
+     */
+    private BigDecimal maxTotal;
+}
@@ -0,0 +1,34 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Página de resultados de la búsqueda de órdenes, paginada por cursor (keyset).
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class OrderSearchPageDto {
+
+    /**
+     * Órdenes de la página actual.
+     */
+    private List<OrderSummaryDto> items;
+
+    /**
+     * Cursor opaco para solicitar la página siguiente, o {@code null} si es la última.
+     */
+    private String nextCursor;
+
+    /**
+     * Cantidad aproximada de órdenes que cumplen los filtros, según las estadísticas del
+     * planificador de PostgreSQL; {@code null} si no se solicitó.
+     */
+    private Long estimatedTotal;
+}
@@ -0,0 +1,35 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Proyección compacta de una orden para los listados.
+ * <p>
+ * Se construye directamente en la consulta JPQL con las columnas de la tabla "orders",
+ * sin cargar la entidad en el contexto de persistencia ni el atributo transitorio {@code orders}.
+ * </p>
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class OrderSummaryDto {
+
+    private Integer id;
+
+    private String userId;
+
+    private LocalDate date;
+
+    private String store;
+
+    private String paymentMethod;
+
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,21 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Proyección con el resultado de actualizar el total de una orden: a quién pertenece,
+ * a qué tienda y día corresponde y cuánto valía antes y después del cambio.
+ */
+public interface OrderTotalChange {
+
+    String getUserId();
+
+    String getStore();
+
+    LocalDate getDate();
+
+    BigDecimal getOldTotal();
+
+    BigDecimal getNewTotal();
+}
@@ -0,0 +1,28 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO con el total calculado de una orden, usado para actualizar totales en bloque.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter@Setter
+public class OrderTotalDto {
+
+    /**
+     * Identificador de la orden a actualizar.
+     */
+    private Integer orderId;
+
+    /**
+     * Nuevo valor total de la orden.
+     */
+    private BigDecimal totalPrice;
+}
@@ -0,0 +1,40 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository.IDailyStoreRevenueJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Implementación del repositorio del agregado diario de ventas sobre {@link IDailyStoreRevenueJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class DailyStoreRevenueRepositoryImpl implements IDailyStoreRevenueRepository {
+
+    private final IDailyStoreRevenueJpaRepository iDailyStoreRevenueJpaRepository;
+
+    @Override
+    public void applyDelta(String store, LocalDate date, long orderCount, BigDecimal revenue) {
+        if (store == null || date == null) {
+            return;
+        }
+        iDailyStoreRevenueJpaRepository.applyDelta(store, date, orderCount, revenue);
+    }
+
+    @Override
+    public List<DailyStoreRevenueDto> getByDateRange(String store, LocalDate from, LocalDate to) {
+        return iDailyStoreRevenueJpaRepository.findByDateRange(store, from, to);
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        iDailyStoreRevenueJpaRepository.deleteByDateRange(from, to);
+        return iDailyStoreRevenueJpaRepository.insertFromOrders(from, to);
+    }
+}
@@ -0,0 +1,43 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interfaz de repositorio para el agregado diario de ventas por tienda.
+ */
+public interface IDailyStoreRevenueRepository {
+
+    /**
+     * Suma un delta de órdenes y ventas a la fila (tienda, fecha), creándola si no existe.
+     * Las órdenes antiguas sin tienda o sin fecha no forman parte del agregado, así que
+     * en ese caso no hace nada.
+     *
+     * @param store tienda.
+     * @param date día.
+     * @param orderCount variación de la cantidad de órdenes (negativa al eliminar).
+     * @param revenue variación de la suma de totales.
+     */
+    void applyDelta(String store, LocalDate date, long orderCount, BigDecimal revenue);
+
+    /**
+     * Obtiene las ventas diarias de un rango de fechas.
+     *
+     * @param store tienda, o {@code null} para todas.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return las ventas por tienda y día.
+     */
+    List<DailyStoreRevenueDto> getByDateRange(String store, LocalDate from, LocalDate to);
+
+    /**
+     * Recalcula desde cero el agregado de un rango de fechas en la transacción actual.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return la cantidad de filas (tienda, día) generadas.
+     */
+    int rebuild(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,58 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.IdempotencyKeyEntity;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Interfaz de repositorio para las claves de idempotencia.
+ */
+public interface IIdempotencyKeyRepository {
+
+    /**
+     * Reserva una clave para ejecutar la petición.
+     *
+     * @param key clave enviada por el cliente.
+     * @param owner usuario que la envía.
+     * @param requestHash huella de la petición.
+     * @param leaseUntil momento hasta el que se reserva la clave.
+     * @return true si la reserva es de quien llama; false si otra petición ya la tiene.
+     */
+    boolean claim(String key, String owner, String requestHash, Instant leaseUntil);
+
+    /**
+     * Busca una clave.
+     *
+     * @param key clave enviada por el cliente.
+     * @param owner usuario que la envía.
+     * @return la clave, si existe.
+     */
+    Optional<IdempotencyKeyEntity> findByKey(String key, String owner);
+
+    /**
+     * Guarda la respuesta de una petición terminada.
+     *
+     * @param key clave enviada por el cliente.
+     * @param owner usuario que la envía.
+     * @param responseStatus código HTTP de la respuesta.
+     * @param responseBody cuerpo JSON de la respuesta.
+     * @param expiresAt fin de la retención.
+     */
+    void complete(String key, String owner, int responseStatus, String responseBody, Instant expiresAt);
+
+    /**
+     * Libera una reserva en curso.
+     *
+     * @param key clave enviada por el cliente.
+     * @param owner usuario que la envía.
+     */
+    void release(String key, String owner);
+
+    /**
+     * Borra un lote de claves vencidas.
+     *
+     * @param limit cantidad máxima de claves a borrar.
+     * @return la cantidad de claves borradas.
+     */
+    int deleteExpired(int limit);
+}
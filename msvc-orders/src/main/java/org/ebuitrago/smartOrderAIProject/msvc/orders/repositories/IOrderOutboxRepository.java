@@ -0,0 +1,51 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderOutboxEntity;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Interfaz de repositorio para los eventos pendientes del outbox de órdenes.
+ */
+public interface IOrderOutboxRepository {
+
+    /**
+     * Guarda un evento en la transacción actual.
+     *
+     * @param event el evento a guardar.
+     * @return el evento guardado con su ID generado.
+     */
+    OrderOutboxEntity save(OrderOutboxEntity event);
+
+    /**
+     * Toma y bloquea el siguiente lote de eventos listos, saltando los que otra instancia tenga bloqueados.
+     *
+     * @param limit cantidad máxima de eventos.
+     * @return los eventos bloqueados hasta el fin de la transacción.
+     */
+    List<OrderOutboxEntity> lockNextBatch(int limit);
+
+    /**
+     * Aparta los eventos indicados hasta {@code until}, para entregarlos fuera de la transacción
+     * que los bloqueó. Si la instancia cae antes de registrar el resultado, vuelven a estar
+     * disponibles al vencer el plazo.
+     *
+     * @param events los eventos bloqueados por {@link #lockNextBatch}.
+     * @param until fin del plazo.
+     */
+    void claim(List<OrderOutboxEntity> events, Instant until);
+
+    /**
+     * Guarda los intentos, el próximo intento y el último error de un evento fallido.
+     *
+     * @param event el evento con sus datos actualizados.
+     */
+    void registerFailure(OrderOutboxEntity event);
+
+    /**
+     * Elimina los eventos ya entregados en una sola sentencia.
+     *
+     * @param events los eventos entregados.
+     */
+    void deleteAll(List<OrderOutboxEntity> events);
+}
@@ -1,10 +1,17 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
 
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalChange;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interfaz que define las operaciones de persistencia relacionadas con la entidad {@link OrderEntity}.
@@ -16,18 +23,21 @@ import java.util.Optional;
 public interface IOrderRepository {
 
     /**
-     * Obtiene todas las órdenes registradas en el sistema.
+     * Obtiene una página del listado de órdenes ordenado por fecha e identificador descendentes.
      *
-     * @return una lista con todas las entidades {@link OrderEntity} almacenadas.
+     * @param afterDate fecha de la última orden de la página anterior, o {@code null} para la primera página.
+     * @param afterId identificador de la última orden de la página anterior, o {@code null} para la primera página.
+     * @param limit cantidad máxima de órdenes a devolver.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
      */
-    List<OrderEntity> getAll();
+    List<OrderSummaryDto> getAll(LocalDate afterDate, Integer afterId, int limit);
 
     /**
      * Obtiene todas las ordenes registradas por un usuario
      * @param userId el usuario con su documento a buscar para filtrar las ordenes
-     * @return una lista de ordenes {@link OrderEntity} asociadas al usuario
+     * @return una lista de ordenes {@link OrderResponseDto} asociadas al usuario
      */
-    List<OrderEntity> getByUserId(String userId);
+    List<OrderResponseDto> getByUserId(String userId);
 
     /**
      * Busca una orden específica por su identificador único.
@@ -46,6 +56,41 @@ public interface IOrderRepository {
      */
     List<OrderEntity> getByDate(LocalDate orderByDateList);
 
+    /**
+     * Obtiene una página de las órdenes de un rango de fechas, de la más reciente a la más antigua.
+     *
+     * @param from fecha inicial del rango (inclusive).
+     * @param beforeDate fecha de la última orden de la página anterior, o la fecha final del rango.
+     * @param beforeId identificador de la última orden de la página anterior, o {@link Integer#MAX_VALUE}.
+     * @param limit cantidad máxima de órdenes a devolver.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    List<OrderSummaryDto> getByDateRange(LocalDate from, LocalDate beforeDate, Integer beforeId, int limit);
+
+    /**
+     * Obtiene una página de las órdenes de un usuario dentro de un rango de fechas.
+     *
+     * @param userId el usuario a buscar para filtrar las ordenes.
+     * @param from fecha inicial del rango (inclusive).
+     * @param beforeDate fecha de la última orden de la página anterior, o la fecha final del rango.
+     * @param beforeId identificador de la última orden de la página anterior, o {@link Integer#MAX_VALUE}.
+     * @param limit cantidad máxima de órdenes a devolver.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    List<OrderSummaryDto> getByUserIdAndDateRange(String userId, LocalDate from, LocalDate beforeDate,
+                                                  Integer beforeId, int limit);
+
+    /**
+     * Recorre las órdenes de un rango de fechas sin cargarlas todas en memoria.
+     * Cada orden se desvincula del contexto de persistencia en cuanto se entrega,
+     * por lo que el consumo de memoria no crece con el tamaño del rango.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return un stream de entidades {@link OrderEntity} que debe cerrarse al terminar.
+     */
+    Stream<OrderEntity> streamByDateRange(LocalDate from, LocalDate to);
+
     /**
      * Guarda una nueva orden o actualiza una existente en la base de datos.
      *
@@ -55,6 +100,14 @@ public interface IOrderRepository {
      */
     OrderEntity save(OrderEntity orderEntity);
 
+    /**
+     * Guarda en bloque una lista de órdenes, aprovechando las inserciones por lotes JDBC.
+     *
+     * @param orders las entidades {@link OrderEntity} a guardar.
+     * @return las entidades guardadas con sus IDs generados.
+     */
+    List<OrderEntity> saveAll(List<OrderEntity> orders);
+
     /**
      * Elimina una orden existente de la base de datos.
      *
@@ -62,6 +115,41 @@ public interface IOrderRepository {
      */
     void deleteById(Integer id);
 
+    /**
+     * Actualiza únicamente el total de una orden.
+     *
+     * @param id identificador de la orden.
+     * @param totalPrice nuevo total de la orden.
+     * @return el cambio aplicado (usuario, tienda, día y totales anterior y nuevo), o vacío si la orden no existe.
+     */
+    Optional<OrderTotalChange> updateTotalPrice(Integer id, BigDecimal totalPrice);
+
+    /**
+     * Actualiza el total de varias órdenes en una sola sentencia.
+     *
+     * @param totals total por id de orden.
+     * @return el cambio aplicado a cada orden actualizada.
+     */
+    List<OrderTotalChange> updateTotalPrices(Map<Integer, BigDecimal> totals);
 
+    /**
+     * Busca órdenes con filtros combinados, de la más reciente a la más antigua,
+     * empezando justo después de la posición ({@code beforeDate}, {@code beforeId}).
+     *
+     * @param criteria filtros de la búsqueda.
+     * @param beforeDate fecha de la última orden leída, o {@code null} para la primera página.
+     * @param beforeId id de la última orden leída, o {@code null} para la primera página.
+     * @param limit cantidad máxima de filas a leer.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    List<OrderSummaryDto> search(OrderSearchCriteriaDto criteria, LocalDate beforeDate, Integer beforeId, int limit);
 
+    /**
+     * Estima cuántas órdenes cumplen los filtros a partir del plan de PostgreSQL,
+     * sin recorrer las filas como haría un {@code COUNT(*)}.
+     *
+     * @param criteria filtros de la búsqueda.
+     * @return la cantidad estimada de órdenes.
+     */
+    long estimateCount(OrderSearchCriteriaDto criteria);
 }
@@ -0,0 +1,45 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.IdempotencyKeyEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository.IIdempotencyKeyJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Implementación del repositorio de claves de idempotencia sobre {@link IIdempotencyKeyJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class IdempotencyKeyRepositoryImpl implements IIdempotencyKeyRepository {
+
+    private final IIdempotencyKeyJpaRepository iIdempotencyKeyJpaRepository;
+
+    @Override
+    public boolean claim(String key, String owner, String requestHash, Instant leaseUntil) {
+        return iIdempotencyKeyJpaRepository.claim(key, owner, requestHash, leaseUntil, Instant.now()) > 0;
+    }
+
+    @Override
+    public Optional<IdempotencyKeyEntity> findByKey(String key, String owner) {
+        return iIdempotencyKeyJpaRepository.findById(new IdempotencyKeyEntity.Key(key, owner));
+    }
+
+    @Override
+    public void complete(String key, String owner, int responseStatus, String responseBody, Instant expiresAt) {
+        iIdempotencyKeyJpaRepository.complete(key, owner, responseStatus, responseBody, expiresAt);
+    }
+
+    @Override
+    public void release(String key, String owner) {
+        iIdempotencyKeyJpaRepository.release(key, owner);
+    }
+
+    @Override
+    public int deleteExpired(int limit) {
+        return iIdempotencyKeyJpaRepository.deleteExpired(Instant.now(), limit);
+    }
+}
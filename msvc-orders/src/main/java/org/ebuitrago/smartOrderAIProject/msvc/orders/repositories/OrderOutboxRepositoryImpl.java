@@ -0,0 +1,46 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderOutboxEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository.IOrderOutboxJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Implementación del repositorio del outbox de órdenes sobre {@link IOrderOutboxJpaRepository}.
+ */
+@RequiredArgsConstructor
+@Repository
+public class OrderOutboxRepositoryImpl implements IOrderOutboxRepository {
+
+    private final IOrderOutboxJpaRepository iOrderOutboxJpaRepository;
+
+    @Override
+    public OrderOutboxEntity save(OrderOutboxEntity event) {
+        return iOrderOutboxJpaRepository.save(event);
+    }
+
+    @Override
+    public List<OrderOutboxEntity> lockNextBatch(int limit) {
+        return iOrderOutboxJpaRepository.lockNextBatch(Instant.now(), limit);
+    }
+
+    @Override
+    public void claim(List<OrderOutboxEntity> events, Instant until) {
+        iOrderOutboxJpaRepository.claim(events.stream().map(OrderOutboxEntity::getId).toList(), until);
+    }
+
+    @Override
+    public void registerFailure(OrderOutboxEntity event) {
+        iOrderOutboxJpaRepository.registerFailure(event.getId(), event.getAttempts(),
+                event.getNextAttemptAt(), event.getLastError());
+    }
+
+    @Override
+    public void deleteAll(List<OrderOutboxEntity> events) {
+        iOrderOutboxJpaRepository.deleteByIds(events.stream().map(OrderOutboxEntity::getId).toList());
+    }
+}
@@ -1,16 +1,33 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
 
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalChange;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository.IOrderJpaRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Implementación del repositorio para la entidad {@link OrderEntity}.
@@ -24,16 +41,28 @@ import java.util.Optional;
 @Repository
 public class OrderRepositoryImpl implements IOrderRepository {
 
+    /**
+     * Filas estimadas del nodo raíz en la salida JSON de EXPLAIN.
+     */
+    private static final Pattern PLAN_ROWS = Pattern.compile("\"Plan Rows\":\\s*(\\d+)");
+
     private final IOrderJpaRepository iOrderJpaRepository;
 
+    private final EntityManager entityManager;
+
+    private final JdbcTemplate jdbcTemplate;
+
     @Override
-    public List<OrderEntity> getAll() {
-        return iOrderJpaRepository.findAll();
+    public List<OrderSummaryDto> getAll(LocalDate afterDate, Integer afterId, int limit) {
+        if (afterDate == null || afterId == null) {
+            return iOrderJpaRepository.findFirstPage(Limit.of(limit));
+        }
+        return iOrderJpaRepository.findPageAfter(afterDate, afterId, Limit.of(limit));
     }
 
     @Override
-    public List<OrderEntity> getByUserId(String userId) {
-        return iOrderJpaRepository.findByUserId(userId);
+    public List<OrderResponseDto> getByUserId(String userId) {
+        return iOrderJpaRepository.findResponsesByUserId(userId);
     }
 
     @Override
@@ -46,14 +75,108 @@ public class OrderRepositoryImpl implements IOrderRepository {
         return iOrderJpaRepository.findByDate(orderByDateList);
     }
 
+    @Override
+    public List<OrderSummaryDto> getByDateRange(LocalDate from, LocalDate beforeDate, Integer beforeId, int limit) {
+        return iOrderJpaRepository.findPageByDateRange(from, beforeDate, beforeId, Limit.of(limit));
+    }
+
+    @Override
+    public List<OrderSummaryDto> getByUserIdAndDateRange(String userId, LocalDate from, LocalDate beforeDate,
+                                                         Integer beforeId, int limit) {
+        return iOrderJpaRepository.findPageByUserIdAndDateRange(userId, from, beforeDate, beforeId, Limit.of(limit));
+    }
+
+    @Override
+    public Stream<OrderEntity> streamByDateRange(LocalDate from, LocalDate to) {
+        return iOrderJpaRepository.streamByDateRange(from, to).peek(entityManager::detach);
+    }
+
     @Override
     public OrderEntity save(OrderEntity orderEntity) {
         return iOrderJpaRepository.save(orderEntity);
     }
 
+    @Override
+    public List<OrderEntity> saveAll(List<OrderEntity> orders) {
+        return iOrderJpaRepository.saveAll(orders);
+    }
+
     @Override
     public void deleteById(Integer id) {
         iOrderJpaRepository.deleteById(id);
     }
 
+    @Override
+    public Optional<OrderTotalChange> updateTotalPrice(Integer id, BigDecimal totalPrice) {
+        return iOrderJpaRepository.updateTotalPrice(id, totalPrice).stream().findFirst();
+    }
+
+    @Override
+    public List<OrderTotalChange> updateTotalPrices(Map<Integer, BigDecimal> totals) {
+        return iOrderJpaRepository.updateTotalPrices(
+                totals.keySet().toArray(Integer[]::new),
+                totals.values().toArray(BigDecimal[]::new));
+    }
+
+    @Override
+    public List<OrderSummaryDto> search(OrderSearchCriteriaDto criteria, LocalDate beforeDate, Integer beforeId, int limit) {
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<OrderSummaryDto> query = cb.createQuery(OrderSummaryDto.class);
+        Root<OrderEntity> root = query.from(OrderEntity.class);
+
+        Predicate predicate = OrderSpecifications.matching(criteria)
+                .and(OrderSpecifications.before(beforeDate, beforeId))
+                .toPredicate(root, query, cb);
+
+        query.select(cb.construct(OrderSummaryDto.class,
+                        root.get("id"), root.get("userId"), root.get("date"),
+                        root.get("store"), root.get("paymentMethod"), root.get("totalPrice")))
+                .orderBy(cb.desc(root.get("date")), cb.desc(root.get("id")));
+
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long estimateCount(OrderSearchCriteriaDto criteria) {
+
+        StringBuilder sql = new StringBuilder("EXPLAIN (FORMAT JSON) SELECT 1 FROM orders o WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+
+        if (criteria.getStore() != null && !criteria.getStore().isBlank()) {
+            sql.append(" AND o.store = ?");
+            args.add(criteria.getStore());
+        }
+        if (criteria.getPaymentMethod() != null && !criteria.getPaymentMethod().isBlank()) {
+            sql.append(" AND o.payment_method = ?");
+            args.add(criteria.getPaymentMethod());
+        }
+        if (criteria.getFrom() != null) {
+            sql.append(" AND o.date >= ?");
+            args.add(criteria.getFrom());
+        }
+        if (criteria.getTo() != null) {
+            sql.append(" AND o.date <= ?");
+            args.add(criteria.getTo());
+        }
+        if (criteria.getMinTotal() != null) {
+            sql.append(" AND o.total_price >= ?");
+            args.add(criteria.getMinTotal());
+        }
+        if (criteria.getMaxTotal() != null) {
+            sql.append(" AND o.total_price <= ?");
+            args.add(criteria.getMaxTotal());
+        }
+
+        String plan = jdbcTemplate.queryForObject(sql.toString(), String.class, args.toArray());
+        Matcher rows = PLAN_ROWS.matcher(plan == null ? "" : plan);
+
+        return rows.find() ? Long.parseLong(rows.group(1)) : 0L;
+    }
 }
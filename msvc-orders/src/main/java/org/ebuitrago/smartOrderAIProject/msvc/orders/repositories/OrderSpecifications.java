@@ -0,0 +1,80 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories;
+
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Especificaciones JPA para construir dinámicamente los filtros de la búsqueda de órdenes.
+ * Cada filtro se agrega solo si el criterio correspondiente viene informado.
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Combina con AND todos los filtros informados en los criterios.
+     *
+     * @param criteria filtros de la búsqueda.
+     * @return la especificación resultante.
+     */
+    public static Specification<OrderEntity> matching(OrderSearchCriteriaDto criteria) {
+        return Specification.allOf(
+                storeEquals(criteria.getStore()),
+                paymentMethodEquals(criteria.getPaymentMethod()),
+                dateFrom(criteria.getFrom()),
+                dateTo(criteria.getTo()),
+                totalFrom(criteria.getMinTotal()),
+                totalTo(criteria.getMaxTotal()));
+    }
+
+    /**
+     * Posición keyset: órdenes estrictamente posteriores a (fecha, id) en el orden
+     * fecha DESC, id DESC.
+     * <p>
+     * La API de criterios no permite comparar valores de fila, así que además del OR se agrega
+     * la cota redundante {@code date <= beforeDate}: con ella PostgreSQL acota el recorrido del
+     * índice y descarta particiones, y solo lee de más las filas del mismo día que ya se devolvieron.
+     * </p>
+     *
+     * @param beforeDate fecha de la última orden leída.
+     * @param beforeId id de la última orden leída.
+     * @return la especificación, o ninguna restricción si no hay posición.
+     */
+    public static Specification<OrderEntity> before(LocalDate beforeDate, Integer beforeId) {
+        return (root, query, cb) -> beforeDate == null || beforeId == null ? null :
+                cb.and(cb.lessThanOrEqualTo(root.get("date"), beforeDate),
+                        cb.or(cb.lessThan(root.get("date"), beforeDate),
+                                cb.and(cb.equal(root.get("date"), beforeDate), cb.lessThan(root.get("id"), beforeId))));
+    }
+
+    private static Specification<OrderEntity> storeEquals(String store) {
+        return (root, query, cb) -> store == null || store.isBlank() ? null : cb.equal(root.get("store"), store);
+    }
+
+    private static Specification<OrderEntity> paymentMethodEquals(String paymentMethod) {
+        return (root, query, cb) -> paymentMethod == null || paymentMethod.isBlank() ? null :
+                cb.equal(root.get("paymentMethod"), paymentMethod);
+    }
+
+    private static Specification<OrderEntity> dateFrom(LocalDate from) {
+        return (root, query, cb) -> from == null ? null : cb.greaterThanOrEqualTo(root.get("date"), from);
+    }
+
+    private static Specification<OrderEntity> dateTo(LocalDate to) {
+        return (root, query, cb) -> to == null ? null : cb.lessThanOrEqualTo(root.get("date"), to);
+    }
+
+    private static Specification<OrderEntity> totalFrom(BigDecimal minTotal) {
+        return (root, query, cb) -> minTotal == null ? null : cb.greaterThanOrEqualTo(root.get("totalPrice"), minTotal);
+    }
+
+    private static Specification<OrderEntity> totalTo(BigDecimal maxTotal) {
+        return (root, query, cb) -> maxTotal == null ? null : cb.lessThanOrEqualTo(root.get("totalPrice"), maxTotal);
+    }
+}
@@ -0,0 +1,71 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository;
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.DailyStoreRevenueEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repositorio JPA para el agregado diario de ventas por tienda {@link DailyStoreRevenueEntity}.
+ */
+public interface IDailyStoreRevenueJpaRepository
+        extends JpaRepository<DailyStoreRevenueEntity, DailyStoreRevenueEntity.Key> {
+
+    /**
+     * Suma un delta a la fila (tienda, fecha), creándola si no existe, en una sola sentencia.
+     * Dos transacciones que tocan la misma fila se serializan por el bloqueo de la fila,
+     * sin perder ninguno de los incrementos.
+     *
+     * @param store tienda.
+     * @param date día.
+     * @param orderCount variación de la cantidad de órdenes.
+     * @param revenue variación de la suma de totales.
+     * @return la cantidad de filas insertadas o actualizadas.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO daily_store_revenue (store, date, order_count, total_revenue) " +
+            "VALUES (:store, :date, :orderCount, :revenue) " +
+            "ON CONFLICT (store, date) DO UPDATE SET " +
+            "order_count = daily_store_revenue.order_count + EXCLUDED.order_count, " +
+            "total_revenue = daily_store_revenue.total_revenue + EXCLUDED.total_revenue", nativeQuery = true)
+    int applyDelta(@Param("store") String store, @Param("date") LocalDate date,
+                   @Param("orderCount") long orderCount, @Param("revenue") BigDecimal revenue);
+
+    /**
+     * Obtiene las ventas diarias de un rango de fechas, opcionalmente de una sola tienda.
+     *
+     * @param store tienda, o {@code null} para todas.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return las ventas por tienda y día, ordenadas por fecha y tienda.
+     */
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto(" +
+            "r.store, r.date, r.orderCount, r.totalRevenue) FROM DailyStoreRevenueEntity r " +
+            "WHERE r.date BETWEEN :from AND :to AND (:store IS NULL OR r.store = :store) " +
+            "ORDER BY r.date, r.store")
+    List<DailyStoreRevenueDto> findByDateRange(@Param("store") String store,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to);
+
+    /**
+     * Borra el agregado de un rango de fechas antes de recalcularlo.
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query(value = "DELETE FROM daily_store_revenue WHERE date BETWEEN :from AND :to", nativeQuery = true)
+    int deleteByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Recalcula el agregado de un rango de fechas a partir de la tabla "orders".
+     * Solo lee las particiones mensuales del rango. Las órdenes antiguas sin tienda no se agregan.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO daily_store_revenue (store, date, order_count, total_revenue) " +
+            "SELECT o.store, o.date, COUNT(*), COALESCE(SUM(o.total_price), 0) FROM orders o " +
+            "WHERE o.date BETWEEN :from AND :to AND o.store IS NOT NULL GROUP BY o.store, o.date", nativeQuery = true)
+    int insertFromOrders(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,9 +1,20 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository;
 
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalChange;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repositorio JPA para la entidad {@link OrderEntity}.
@@ -25,10 +36,141 @@ public interface IOrderJpaRepository extends JpaRepository<OrderEntity, Integer>
     List<OrderEntity> findByDate(LocalDate orderByDate);
 
     /**
-     * Busca todas las ordenes asociadas a un usuario que se busca con su numero de documento
+     * Busca todas las ordenes asociadas a un usuario que se busca con su numero de documento,
+     * leyendo solo el id, el usuario y la fecha. El resultado se construye directamente como DTO,
+     * sin pasar por el contexto de persistencia ni por el control de cambios (dirty checking).
      * @param userId el usuario para filtrar sus ordenes
-     * @return Una lista de ordenes {@link OrderEntity} que coindicen con el usuario
+     * @return Una lista de {@link OrderResponseDto} que coindicen con el usuario
      */
-    List<OrderEntity> findByUserId(String userId);
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto(" +
+            "o.id, o.userId, o.date) FROM OrderEntity o WHERE o.userId = :userId")
+    List<OrderResponseDto> findResponsesByUserId(@Param("userId") String userId);
 
-}
\ No newline at end of file
+    /**
+     * Obtiene la primera página del listado de órdenes, de la más reciente a la más antigua.
+     *
+     * @param limit cantidad máxima de filas a leer.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto(" +
+            "o.id, o.userId, o.date, o.store, o.paymentMethod, o.totalPrice) " +
+            "FROM OrderEntity o ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDto> findFirstPage(Limit limit);
+
+    /**
+     * Obtiene la página siguiente a la última orden leída (paginación keyset),
+     * sin recorrer ni descartar las filas de páginas anteriores.
+     * <p>
+     * La posición se compara como valor de fila {@code (date, id) < (:date, :id)}: PostgreSQL la usa
+     * como límite del recorrido del índice {@code (date, id)} y para descartar particiones, cosa que
+     * no puede hacer con la forma equivalente {@code date < :date OR (date = :date AND id < :id)}.
+     * </p>
+     *
+     * @param date fecha de la última orden de la página anterior.
+     * @param id identificador de la última orden de la página anterior.
+     * @param limit cantidad máxima de filas a leer.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto(" +
+            "o.id, o.userId, o.date, o.store, o.paymentMethod, o.totalPrice) " +
+            "FROM OrderEntity o WHERE (o.date, o.id) < (:date, :id) " +
+            "ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDto> findPageAfter(@Param("date") LocalDate date, @Param("id") Integer id, Limit limit);
+
+    /**
+     * Obtiene una página de las órdenes de un rango de fechas, de la más reciente a la más antigua.
+     * La página empieza justo después de la posición ({@code beforeDate}, {@code beforeId}).
+     *
+     * @param from fecha inicial del rango (inclusive).
+     * @param beforeDate fecha de la última orden leída, o la fecha final del rango para la primera página.
+     * @param beforeId id de la última orden leída, o {@link Integer#MAX_VALUE} para la primera página.
+     * @param limit cantidad máxima de filas a leer.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto(" +
+            "o.id, o.userId, o.date, o.store, o.paymentMethod, o.totalPrice) " +
+            "FROM OrderEntity o WHERE o.date >= :from " +
+            "AND (o.date, o.id) < (:beforeDate, :beforeId) " +
+            "ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDto> findPageByDateRange(@Param("from") LocalDate from,
+                                              @Param("beforeDate") LocalDate beforeDate,
+                                              @Param("beforeId") Integer beforeId,
+                                              Limit limit);
+
+    /**
+     * Obtiene una página de las órdenes de un usuario dentro de un rango de fechas,
+     * de la más reciente a la más antigua. La página empieza justo después de la
+     * posición ({@code beforeDate}, {@code beforeId}).
+     *
+     * @param userId el usuario para filtrar sus ordenes.
+     * @param from fecha inicial del rango (inclusive).
+     * @param beforeDate fecha de la última orden leída, o la fecha final del rango para la primera página.
+     * @param beforeId id de la última orden leída, o {@link Integer#MAX_VALUE} para la primera página.
+     * @param limit cantidad máxima de filas a leer.
+     * @return una lista de proyecciones {@link OrderSummaryDto}.
+     */
+    @Query("SELECT new org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto(" +
+            "o.id, o.userId, o.date, o.store, o.paymentMethod, o.totalPrice) " +
+            "FROM OrderEntity o WHERE o.userId = :userId AND o.date >= :from " +
+            "AND (o.date, o.id) < (:beforeDate, :beforeId) " +
+            "ORDER BY o.date DESC, o.id DESC")
+    List<OrderSummaryDto> findPageByUserIdAndDateRange(@Param("userId") String userId,
+                                                       @Param("from") LocalDate from,
+                                                       @Param("beforeDate") LocalDate beforeDate,
+                                                       @Param("beforeId") Integer beforeId,
+                                                       Limit limit);
+
+    /**
+     * Recorre las órdenes de un rango de fechas como un {@link Stream} respaldado por un cursor JDBC.
+     * <p>
+     * El driver trae las filas en bloques del tamaño de {@code fetchSize} en lugar de materializar
+     * todo el resultado; debe consumirse dentro de una transacción y cerrarse al terminar.
+     * </p>
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return un stream de entidades {@link OrderEntity} ordenadas por fecha e id.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM OrderEntity o WHERE o.date BETWEEN :from AND :to ORDER BY o.date, o.id")
+    Stream<OrderEntity> streamByDateRange(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    /**
+     * Actualiza únicamente el total de una orden con una sola sentencia UPDATE,
+     * sin leer la entidad ni reescribir las demás columnas.
+     * {@code RETURNING} devuelve en la misma sentencia el usuario, la tienda, el día y el total
+     * anterior (bloqueado con {@code FOR UPDATE}), necesarios para invalidar la caché del usuario
+     * y ajustar el agregado diario de ventas.
+     *
+     * @param id identificador de la orden.
+     * @param totalPrice nuevo total de la orden.
+     * @return el cambio aplicado, o una lista vacía si la orden no existe.
+     */
+    @Query(value = "UPDATE orders o SET total_price = :totalPrice " +
+            "FROM (SELECT x.id, x.date, x.total_price FROM orders x WHERE x.id = :id FOR UPDATE) old " +
+            "WHERE o.id = old.id AND o.date = old.date " +
+            "RETURNING o.user_id AS \"userId\", o.store AS \"store\", o.date AS \"date\", " +
+            "old.total_price AS \"oldTotal\", o.total_price AS \"newTotal\"", nativeQuery = true)
+    List<OrderTotalChange> updateTotalPrice(@Param("id") Integer id, @Param("totalPrice") BigDecimal totalPrice);
+
+    /**
+     * Actualiza el total de varias órdenes en una sola sentencia, cruzando la tabla con
+     * los pares (id, total) recibidos como arreglos de PostgreSQL.
+     *
+     * @param ids identificadores de las órdenes, sin repetidos.
+     * @param totalPrices totales de las órdenes, en la misma posición que su id.
+     * @return el cambio aplicado a cada orden actualizada.
+     */
+    @Query(value = "UPDATE orders o SET total_price = old.new_total " +
+            "FROM (SELECT x.id, x.date, x.total_price AS old_total, t.total_price AS new_total FROM orders x " +
+            "JOIN unnest(CAST(:ids AS integer[]), CAST(:totalPrices AS numeric[])) AS t(id, total_price) " +
+            "ON x.id = t.id FOR UPDATE OF x) old " +
+            "WHERE o.id = old.id AND o.date = old.date " +
+            "RETURNING o.user_id AS \"userId\", o.store AS \"store\", o.date AS \"date\", " +
+            "old.old_total AS \"oldTotal\", o.total_price AS \"newTotal\"", nativeQuery = true)
+    List<OrderTotalChange> updateTotalPrices(@Param("ids") Integer[] ids, @Param("totalPrices") BigDecimal[] totalPrices);
+
+}
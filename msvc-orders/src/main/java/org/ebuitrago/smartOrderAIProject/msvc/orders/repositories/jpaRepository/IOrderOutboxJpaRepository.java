@@ -0,0 +1,67 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.jpaRepository;
+
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la tabla outbox de {@link OrderOutboxEntity}.
+ */
+public interface IOrderOutboxJpaRepository extends JpaRepository<OrderOutboxEntity, Long> {
+
+    /**
+     * Bloquea el siguiente lote de eventos listos para entregarse.
+     * <p>
+     * {@code FOR UPDATE SKIP LOCKED} salta las filas que otra instancia ya está procesando,
+     * así varias réplicas pueden drenar la tabla en paralelo sin entregar dos veces el mismo evento.
+     * Debe ejecutarse dentro de una transacción; los bloqueos se liberan al confirmarla.
+     * </p>
+     *
+     * @param now momento actual; solo se toman eventos cuyo próximo intento ya venció.
+     * @param limit cantidad máxima de eventos a tomar.
+     * @return los eventos bloqueados, del más antiguo al más reciente.
+     */
+    @Query(value = "SELECT * FROM order_outbox WHERE next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OrderOutboxEntity> lockNextBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Aparta eventos para una instancia hasta {@code until}: mientras tanto ninguna otra los toma.
+     *
+     * @param ids identificadores de los eventos.
+     * @param until momento en que el evento vuelve a estar disponible si no se registró su resultado.
+     * @return número de filas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE OrderOutboxEntity e SET e.nextAttemptAt = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("until") Instant until);
+
+    /**
+     * Registra un intento fallido. Si el evento ya no existe (otra instancia lo entregó) no hace nada.
+     *
+     * @param id identificador del evento.
+     * @param attempts intentos fallidos acumulados.
+     * @param nextAttemptAt próximo intento, o {@code null} si el evento se descarta.
+     * @param lastError mensaje del último error.
+     * @return número de filas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE OrderOutboxEntity e SET e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError WHERE e.id = :id")
+    int registerFailure(@Param("id") Long id, @Param("attempts") Integer attempts,
+                        @Param("nextAttemptAt") Instant nextAttemptAt, @Param("lastError") String lastError);
+
+    /**
+     * Elimina los eventos entregados.
+     *
+     * @param ids identificadores de los eventos.
+     * @return número de filas eliminadas.
+     */
+    @Modifying
+    @Query("DELETE FROM OrderOutboxEntity e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+}
@@ -0,0 +1,31 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.services;
+
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.services.usecase.IOrderServiceUseCase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Tarea programada que recalcula el agregado diario de ventas de los últimos días,
+ * como red de seguridad frente a diferencias del mantenimiento incremental.
+ * Para cargas históricas se usa el endpoint {@code POST /orders/revenue/daily/rebuild}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DailyRevenueRebuildJob {
+
+    private final IOrderServiceUseCase iOrderServiceUseCase;
+
+    @Value("${msvc.orders.revenue.rebuild-days:2}")
+    private int rebuildDays;
+
+    @Scheduled(cron = "${msvc.orders.revenue.rebuild-cron:0 30 3 * * *}")
+    public void rebuildRecentDays() {
+        LocalDate today = LocalDate.now();
+        iOrderServiceUseCase.rebuildDailyRevenue(today.minusDays(rebuildDays), today);
+    }
+}
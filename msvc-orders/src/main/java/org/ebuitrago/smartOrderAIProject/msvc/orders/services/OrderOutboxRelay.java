@@ -0,0 +1,164 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.services;
+
+
+import feign.FeignException;
+import feign.RetryableException;
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.clientrest.ProductOrderClientRest;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderOutboxEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.IOrderOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proceso en segundo plano que entrega los eventos del outbox de órdenes.
+ * <p>
+ * Cada lote se toma con {@code FOR UPDATE SKIP LOCKED} y se aparta por {@code msvc.outbox.lease}
+ * en una transacción corta, por lo que varias instancias del microservicio pueden ejecutarlo a la vez.
+ * Las llamadas a msvc-products-orders se hacen después, sin bloqueos ni conexión retenida, y el
+ * resultado se registra en otra transacción corta. Los eventos entregados se borran; los fallidos se
+ * reintentan con espera exponencial hasta {@code msvc.outbox.max-attempts}, y después quedan en la
+ * tabla, sin próximo intento, para revisión manual. Si la instancia cae a mitad de un lote, sus
+ * eventos se vuelven a entregar al vencer el plazo: la baja en msvc-products-orders es idempotente.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderOutboxRelay {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final IOrderOutboxRepository iOrderOutboxRepository;
+
+    private final ProductOrderClientRest rest;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${msvc.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${msvc.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${msvc.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${msvc.outbox.lease:2m}")
+    private Duration lease;
+
+    /**
+     * Drena los eventos listos, lote por lote, hasta que un lote llegue incompleto.
+     */
+    @Scheduled(fixedDelayString = "${msvc.outbox.poll-interval:1s}")
+    public void relay() {
+        Integer processed;
+        do {
+            processed = relayBatch();
+        } while (processed == batchSize);
+    }
+
+    private int relayBatch() {
+
+        Instant claimedAt = Instant.now();
+        List<OrderOutboxEntity> events = transactionTemplate.execute(status -> {
+            List<OrderOutboxEntity> batch = iOrderOutboxRepository.lockNextBatch(batchSize);
+            if (!batch.isEmpty()) {
+                iOrderOutboxRepository.claim(batch, claimedAt.plus(lease));
+            }
+            return batch;
+        });
+
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        // Se deja de llamar a la mitad del plazo para registrar el resultado antes de que otra
+        // instancia pueda tomar los mismos eventos; los que no se alcanzaron quedan disponibles de inmediato.
+        Instant deadline = claimedAt.plus(lease.dividedBy(2));
+        List<OrderOutboxEntity> delivered = new ArrayList<>();
+        List<OrderOutboxEntity> failed = new ArrayList<>();
+        List<OrderOutboxEntity> pending = new ArrayList<>();
+
+        for (OrderOutboxEntity event : events) {
+            if (Instant.now().isAfter(deadline)) {
+                pending.add(event);
+                continue;
+            }
+            try {
+                dispatch(event);
+                delivered.add(event);
+            } catch (RuntimeException e) {
+                registerFailure(event, e);
+                failed.add(event);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                iOrderOutboxRepository.deleteAll(delivered);
+            }
+            failed.forEach(iOrderOutboxRepository::registerFailure);
+            if (!pending.isEmpty()) {
+                iOrderOutboxRepository.claim(pending, Instant.now());
+            }
+        });
+
+        return pending.isEmpty() ? events.size() : 0;
+    }
+
+    private void dispatch(OrderOutboxEntity event) {
+        if (OrderOutboxEntity.ORDER_DELETED.equals(event.getEventType())) {
+            rest.deleteById(event.getAggregateId());
+        } else {
+            throw new IllegalStateException("Tipo de evento desconocido: " + event.getEventType());
+        }
+    }
+
+    /**
+     * Programa el siguiente intento, o descarta el evento si el error no es recuperable
+     * o si ya agotó los intentos. Los cambios se guardan junto con el resultado del lote.
+     */
+    private void registerFailure(OrderOutboxEntity event, RuntimeException e) {
+
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getMessage()));
+
+        if (!isRetryable(e) || attempts >= maxAttempts) {
+            event.setNextAttemptAt(null);
+            return;
+        }
+
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        event.setNextAttemptAt(Instant.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+    }
+
+    /**
+     * Los errores de red, los 5xx y los 401/403/408/429 pueden resolverse solos; el resto
+     * de respuestas 4xx se repetirían igual en cada intento.
+     */
+    private static boolean isRetryable(RuntimeException e) {
+        if (e instanceof RetryableException) {
+            return true;
+        }
+        if (e instanceof FeignException feign && feign.status() >= 400 && feign.status() < 500) {
+            int status = feign.status();
+            return status == 401 || status == 403 || status == 408 || status == 429;
+        }
+        return !(e instanceof IllegalStateException);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,322 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders.services;
+
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Administra el particionado mensual por rango de fecha de la tabla "orders".
+ * <p>
+ * Al iniciar convierte, una sola vez, la tabla original en una tabla particionada: la tabla
+ * existente se conserva completa como la partición "orders_legacy" (todo lo anterior al mes
+ * actual), sin copiar filas. Todo lo que recorre la tabla completa (validar la restricción de
+ * fecha y construir el índice único (id, date)) se hace antes, sin bloquear lecturas ni escrituras;
+ * el cambio final solo toma un bloqueo breve. Después, cada día crea por adelantado las particiones
+ * de los próximos meses y retira las que superan el período de retención con {@code DETACH PARTITION},
+ * en lugar de borrar fila por fila.
+ * </p>
+ * <p>
+ * Las órdenes con fecha posterior a las particiones creadas (fechas futuras o meses que quedaron
+ * sin partición) van a la partición por defecto "orders_default". Cuando se crea la partición de
+ * su mes, el mantenimiento mueve esas filas a ella.
+ * </p>
+ * <p>
+ * Las consultas con filtro de fecha ({@code findByDate} y los listados por rango) solo leen
+ * las particiones de los meses involucrados. Un lock advisory evita que dos instancias
+ * modifiquen las particiones al mismo tiempo.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderPartitionManager {
+
+    private static final long PARTITION_LOCK_KEY = 7_201_001L;
+
+    private static final String LEGACY_PARTITION = "orders_legacy";
+
+    private static final String DEFAULT_PARTITION = "orders_default";
+
+    private static final String LEGACY_DATE_CHECK = "orders_legacy_date_check";
+
+    private static final String LEGACY_KEY_INDEX = "orders_legacy_id_date_idx";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    /**
+     * Índices declarados en {@code OrderEntity}; se recrean sobre la tabla particionada
+     * para que se propaguen a todas las particiones.
+     */
+    private static final Map<String, String> INDEXES = Map.of(
+            "idx_orders_date_id", "date, id",
+            "idx_orders_user_id_date_id", "user_id, date, id",
+            "idx_orders_store_date_id", "store, date, id",
+            "idx_orders_payment_method_date_id", "payment_method, date, id");
+
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('(\\d{4}-\\d{2}-\\d{2})'\\)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${msvc.orders.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${msvc.orders.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${msvc.orders.partitions.drop-detached:false}")
+    private boolean dropDetached;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    /**
+     * Crea las particiones futuras y retira las vencidas. Se ejecuta al iniciar y según
+     * {@code msvc.orders.partitions.cron}; es idempotente.
+     */
+    @Scheduled(cron = "${msvc.orders.partitions.cron:0 0 3 * * *}")
+    public void maintainPartitions() {
+
+        YearMonth currentMonth = YearMonth.now();
+
+        if (!isPartitioned()) {
+            prepareConversion(currentMonth);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, PARTITION_LOCK_KEY);
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '5s'");
+
+            convertToPartitionedTable(currentMonth);
+            if (!isPartitioned()) {
+                return;
+            }
+
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION + " PARTITION OF orders DEFAULT");
+
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(currentMonth.plusMonths(i));
+            }
+
+            if (retentionMonths > 0) {
+                retirePartitions(currentMonth.minusMonths(retentionMonths).atDay(1));
+            }
+        });
+    }
+
+    private boolean isPartitioned() {
+        String relkind = jdbcTemplate.queryForObject(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass('orders')", String.class);
+        return !"r".equals(relkind);
+    }
+
+    /**
+     * Deja lista la tabla original para convertirla sin recorrerla bajo un bloqueo exclusivo.
+     * <p>
+     * Agrega la restricción de fecha como {@code NOT VALID} (solo un bloqueo breve) y la valida
+     * en un paso aparte, que recorre la tabla sin bloquear escrituras. Con ella, tanto
+     * {@code SET NOT NULL} como {@code ATTACH PARTITION} se resuelven sin volver a recorrerla.
+     * El índice único (id, date) que necesitará la llave primaria se construye con
+     * {@code CONCURRENTLY}. Cada paso es idempotente, por lo que un reinicio a mitad de camino
+     * continúa donde quedó. Usa una sola conexión en modo autocommit, porque
+     * {@code CREATE INDEX CONCURRENTLY} no puede ejecutarse dentro de una transacción.
+     * </p>
+     */
+    private void prepareConversion(YearMonth currentMonth) {
+
+        String firstPartitionStart = currentMonth.atDay(1).toString();
+
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(true);
+            JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(con, true));
+
+            session.queryForObject("SELECT pg_advisory_lock(?)", Object.class, PARTITION_LOCK_KEY);
+            try {
+                session.execute("SET lock_timeout = '5s'");
+
+                String relkind = session.queryForObject(
+                        "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass('orders')", String.class);
+                if ("r".equals(relkind)) {
+                    prepareDateCheck(session, firstPartitionStart);
+                    prepareKeyIndex(session);
+                }
+            } finally {
+                session.execute("RESET lock_timeout");
+                session.queryForObject("SELECT pg_advisory_unlock(?)", Object.class, PARTITION_LOCK_KEY);
+                con.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Crea (si falta o apunta a otro mes) y valida {@code CHECK (date IS NOT NULL AND date < inicio)},
+     * la misma condición que PostgreSQL exige a la partición "orders_legacy".
+     */
+    private void prepareDateCheck(JdbcTemplate session, String firstPartitionStart) {
+
+        List<String> definitions = session.queryForList(
+                "SELECT pg_get_constraintdef(oid) FROM pg_constraint " +
+                        "WHERE conrelid = 'orders'::regclass AND conname = ?", String.class, LEGACY_DATE_CHECK);
+
+        if (!definitions.isEmpty() && !definitions.get(0).contains("'" + firstPartitionStart + "'")) {
+            session.execute("ALTER TABLE orders DROP CONSTRAINT " + LEGACY_DATE_CHECK);
+            definitions = List.of();
+        }
+
+        if (definitions.isEmpty()) {
+            session.execute("ALTER TABLE orders ADD CONSTRAINT " + LEGACY_DATE_CHECK +
+                    " CHECK (date IS NOT NULL AND date < DATE '" + firstPartitionStart + "') NOT VALID");
+        }
+
+        session.execute("ALTER TABLE orders VALIDATE CONSTRAINT " + LEGACY_DATE_CHECK);
+    }
+
+    /**
+     * Construye con {@code CONCURRENTLY} el índice único (id, date); si quedó inválido por
+     * una construcción interrumpida, lo elimina y lo vuelve a construir.
+     */
+    private void prepareKeyIndex(JdbcTemplate session) {
+
+        List<Boolean> valid = session.queryForList(
+                "SELECT i.indisvalid FROM pg_index i WHERE i.indexrelid = to_regclass(?)", Boolean.class, LEGACY_KEY_INDEX);
+
+        if (!valid.isEmpty() && valid.get(0)) {
+            return;
+        }
+        if (!valid.isEmpty()) {
+            session.execute("DROP INDEX CONCURRENTLY IF EXISTS " + LEGACY_KEY_INDEX);
+        }
+
+        session.execute("CREATE UNIQUE INDEX CONCURRENTLY " + LEGACY_KEY_INDEX + " ON orders (id, date)");
+    }
+
+    /**
+     * Convierte la tabla "orders" creada por Hibernate en una tabla particionada por fecha,
+     * si todavía no lo es. La tabla original pasa a ser la partición de todo lo anterior al mes actual.
+     * <p>
+     * Gracias a {@link #prepareConversion}, ningún paso recorre ni copia filas: {@code SET NOT NULL}
+     * y {@code ATTACH PARTITION} se apoyan en la restricción ya validada, la llave primaria (id, date)
+     * se crea sobre el índice ya construido, y los índices existentes se adjuntan a los de la tabla
+     * nueva en lugar de reconstruirse. El bloqueo exclusivo dura solo cambios de catálogo.
+     * </p>
+     */
+    private void convertToPartitionedTable(YearMonth currentMonth) {
+
+        if (isPartitioned()) {
+            return;
+        }
+
+        String firstPartitionStart = currentMonth.atDay(1).toString();
+
+        Boolean prepared = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_constraint WHERE conrelid = 'orders'::regclass AND conname = ? " +
+                        "AND convalidated AND pg_get_constraintdef(oid) LIKE ?) " +
+                        "AND EXISTS (SELECT 1 FROM pg_index WHERE indexrelid = to_regclass(?) AND indisvalid)",
+                Boolean.class, LEGACY_DATE_CHECK, "%'" + firstPartitionStart + "'%", LEGACY_KEY_INDEX);
+
+        if (!Boolean.TRUE.equals(prepared)) {
+            // Cambió el mes o falló la preparación: se reintenta en la próxima ejecución
+            // en lugar de recorrer la tabla bajo el bloqueo exclusivo.
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE orders RENAME TO " + LEGACY_PARTITION);
+        INDEXES.keySet().forEach(index -> jdbcTemplate.execute(
+                "ALTER INDEX IF EXISTS " + index + " RENAME TO " + index.replace("idx_orders_", "orders_legacy_") + "_idx"));
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ALTER COLUMN date SET NOT NULL");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT orders_pkey");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " ADD CONSTRAINT orders_legacy_pkey " +
+                "PRIMARY KEY USING INDEX " + LEGACY_KEY_INDEX);
+
+        jdbcTemplate.execute("CREATE TABLE orders (LIKE " + LEGACY_PARTITION + " INCLUDING DEFAULTS, " +
+                "PRIMARY KEY (id, date)) PARTITION BY RANGE (date)");
+        INDEXES.forEach((index, columns) -> jdbcTemplate.execute(
+                "CREATE INDEX " + index + " ON orders (" + columns + ")"));
+
+        jdbcTemplate.execute("ALTER TABLE orders ATTACH PARTITION " + LEGACY_PARTITION +
+                " FOR VALUES FROM (MINVALUE) TO ('" + firstPartitionStart + "')");
+        jdbcTemplate.execute("ALTER TABLE " + LEGACY_PARTITION + " DROP CONSTRAINT " + LEGACY_DATE_CHECK);
+    }
+
+    /**
+     * Crea la partición de un mes si no existe. Si la partición por defecto ya tiene órdenes de ese
+     * mes, PostgreSQL no permite crearla directamente: se crea como tabla suelta, se mueven allí
+     * las filas y se adjunta.
+     */
+    private void createPartition(YearMonth month) {
+
+        String partition = "orders_" + month.format(PARTITION_SUFFIX);
+        String from = month.atDay(1).toString();
+        String to = month.plusMonths(1).atDay(1).toString();
+
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL",
+                Boolean.class, partition))) {
+            return;
+        }
+
+        Boolean pending = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + DEFAULT_PARTITION +
+                " WHERE date >= DATE '" + from + "' AND date < DATE '" + to + "')", Boolean.class);
+
+        if (!Boolean.TRUE.equals(pending)) {
+            jdbcTemplate.execute("CREATE TABLE " + partition + " PARTITION OF orders FOR VALUES FROM ('" +
+                    from + "') TO ('" + to + "')");
+            return;
+        }
+
+        jdbcTemplate.execute("CREATE TABLE " + partition + " (LIKE orders INCLUDING DEFAULTS, " +
+                "CONSTRAINT " + partition + "_date_check CHECK (date IS NOT NULL AND date >= DATE '" + from +
+                "' AND date < DATE '" + to + "'))");
+        jdbcTemplate.execute("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE date >= DATE '" + from +
+                "' AND date < DATE '" + to + "' RETURNING *) INSERT INTO " + partition + " SELECT * FROM moved");
+        jdbcTemplate.execute("ALTER TABLE orders ATTACH PARTITION " + partition + " FOR VALUES FROM ('" +
+                from + "') TO ('" + to + "')");
+        jdbcTemplate.execute("ALTER TABLE " + partition + " DROP CONSTRAINT " + partition + "_date_check");
+    }
+
+    /**
+     * Separa de "orders" cada partición cuyo límite superior no supera la fecha de corte.
+     * La tabla separada se elimina solo si {@code msvc.orders.partitions.drop-detached} está activo;
+     * si no, queda disponible para archivarla.
+     */
+    private void retirePartitions(LocalDate cutoff) {
+
+        List<String[]> partitions = jdbcTemplate.query(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'orders'::regclass",
+                (rs, rowNum) -> new String[]{rs.getString(1), rs.getString(2)});
+
+        for (String[] partition : partitions) {
+
+            Matcher matcher = UPPER_BOUND.matcher(partition[1]);
+
+            if (matcher.find() && !LocalDate.parse(matcher.group(1)).isAfter(cutoff)) {
+                jdbcTemplate.execute("ALTER TABLE orders DETACH PARTITION " + partition[0]);
+                if (dropDetached) {
+                    jdbcTemplate.execute("DROP TABLE " + partition[0]);
+                }
+            }
+        }
+    }
+}
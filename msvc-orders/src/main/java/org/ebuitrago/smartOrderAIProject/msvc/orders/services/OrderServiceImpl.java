@@ -1,12 +1,27 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.services;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
-import org.ebuitrago.smartOrderAIProject.msvc.orders.clientrest.ProductOrderClientRest;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.DailyStoreRevenueEntity;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderOutboxEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.BulkItemResultDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchPageDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalChange;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.CursorPageDto;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.IDailyStoreRevenueRepository;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.IOrderOutboxRepository;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.IOrderRepository;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.services.usecase.IOrderServiceUseCase;
 import org.springframework.security.core.Authentication;
@@ -14,11 +29,27 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Implementación del caso de uso para las operaciones relacionadas con las órdenes.
@@ -33,19 +64,186 @@ import java.util.Optional;
 @Service
 public class OrderServiceImpl implements IOrderServiceUseCase {
 
+    /**
+     * Tamaño de página usado cuando el cliente no indica uno.
+     */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+
+    /**
+     * Tamaño máximo de página permitido, para acotar la memoria usada por petición.
+     */
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Cada cuántas órdenes exportadas se fuerza el envío de lo escrito al cliente.
+     */
+    private static final int EXPORT_FLUSH_ROWS = 1000;
+
+    /**
+     * Cantidad máxima de órdenes aceptadas en una sola petición de carga en bloque.
+     */
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    /**
+     * Órdenes persistidas por transacción en la carga en bloque (múltiplo del tamaño de lote JDBC).
+     */
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    /**
+     * Días recalculados por transacción al reconstruir el agregado diario de ventas.
+     */
+    private static final int REVENUE_REBUILD_DAYS = 31;
+
     private final IOrderRepository iOrderRepository;
 
-    private final ProductOrderClientRest rest;
+    private final IOrderOutboxRepository iOrderOutboxRepository;
+
+    private final IDailyStoreRevenueRepository iDailyStoreRevenueRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Cache<String, List<OrderResponseDto>> ordersByUserCache;
+
+    /**
+     * Obtiene una página de órdenes usando paginación por cursor sobre (fecha, id).
+     * <p>
+     * Se lee una fila más de las solicitadas para saber si existe una página siguiente;
+     * en ese caso el cursor devuelto codifica la fecha y el id de la última orden de la página.
+     * </p>
+     *
+     * @param cursor cursor de la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas.
+     * @return la página de órdenes con el cursor de la siguiente.
+     * @throws RuntimeException si el cursor no es válido.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageDto<OrderSummaryDto> getAll(String cursor, Integer size) {
+
+        int pageSize = pageSize(size);
+
+        LocalDate afterDate = null;
+        Integer afterId = null;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            afterDate = LocalDate.parse(position[0]);
+            afterId = Integer.valueOf(position[1]);
+        }
+
+        return toPage(iOrderRepository.getAll(afterDate, afterId, pageSize + 1), pageSize);
+    }
+
+    /**
+     * Obtiene una página de las órdenes de un rango de fechas usando paginación por cursor.
+     * La consulta se resuelve con el índice sobre (fecha, id) en lugar de recorrer la tabla.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param cursor cursor de la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas.
+     * @return la página de órdenes con el cursor de la siguiente.
+     * @throws RuntimeException si el rango o el cursor no son válidos.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public CursorPageDto<OrderSummaryDto> getByDateRange(LocalDate from, LocalDate to, String cursor, Integer size) {
+
+        validateRange(from, to);
+
+        int pageSize = pageSize(size);
+        LocalDate beforeDate = to;
+        Integer beforeId = Integer.MAX_VALUE;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            beforeDate = LocalDate.parse(position[0]);
+            beforeId = Integer.valueOf(position[1]);
+        }
+
+        return toPage(iOrderRepository.getByDateRange(from, beforeDate, beforeId, pageSize + 1), pageSize);
+    }
 
     /**
-     * Obtiene todas las órdenes registradas.
+     * Obtiene una página de las órdenes de un usuario dentro de un rango de fechas.
+     * La consulta se resuelve con el índice compuesto sobre (usuario, fecha, id).
      *
-     * @return Lista con todas las órdenes existentes.
+     * @param userId el usuario a buscar para filtrar sus ordenes.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param cursor cursor de la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas.
+     * @return la página de órdenes con el cursor de la siguiente.
+     * @throws RuntimeException si el rango o el cursor no son válidos.
      */
     @Transactional(readOnly = true)
     @Override
-    public List<OrderEntity> getAll() {
-        return iOrderRepository.getAll();
+    public CursorPageDto<OrderSummaryDto> getOrdersByUserInRange(String userId, LocalDate from, LocalDate to,
+                                                                 String cursor, Integer size) {
+
+        validateRange(from, to);
+
+        int pageSize = pageSize(size);
+        LocalDate beforeDate = to;
+        Integer beforeId = Integer.MAX_VALUE;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            beforeDate = LocalDate.parse(position[0]);
+            beforeId = Integer.valueOf(position[1]);
+        }
+
+        return toPage(iOrderRepository.getByUserIdAndDateRange(userId, from, beforeDate, beforeId, pageSize + 1),
+                pageSize);
+    }
+
+    /**
+     * Busca órdenes combinando los filtros informados, con paginación por cursor (keyset).
+     * <p>
+     * La consulta se arma dinámicamente con especificaciones JPA y se apoya en los índices
+     * (tienda, fecha, id) y (método de pago, fecha, id). Nunca ejecuta un {@code COUNT(*)} exacto:
+     * si se pide, el total se estima con el plan de PostgreSQL.
+     * </p>
+     *
+     * @param criteria filtros de la búsqueda; los no informados se ignoran.
+     * @param cursor cursor devuelto en la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes por página.
+     * @param estimateCount si se debe incluir una estimación de la cantidad total de resultados.
+     * @return la página de órdenes con el cursor de la siguiente.
+     * @throws RuntimeException si los rangos o el cursor no son válidos.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public OrderSearchPageDto search(OrderSearchCriteriaDto criteria, String cursor, Integer size, boolean estimateCount) {
+
+        if (criteria.getFrom() != null && criteria.getTo() != null) {
+            validateRange(criteria.getFrom(), criteria.getTo());
+        }
+
+        if (criteria.getMinTotal() != null && criteria.getMaxTotal() != null
+                && criteria.getMinTotal().compareTo(criteria.getMaxTotal()) > 0) {
+            throw new RuntimeException("El rango de totales no es válido");
+        }
+
+        int pageSize = pageSize(size);
+        LocalDate beforeDate = null;
+        Integer beforeId = null;
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = decodeCursor(cursor);
+            beforeDate = LocalDate.parse(position[0]);
+            beforeId = Integer.valueOf(position[1]);
+        }
+
+        CursorPageDto<OrderSummaryDto> page =
+                toPage(iOrderRepository.search(criteria, beforeDate, beforeId, pageSize + 1), pageSize);
+
+        return new OrderSearchPageDto(page.getItems(), page.getNextCursor(),
+                estimateCount ? iOrderRepository.estimateCount(criteria) : null);
     }
 
     /**
@@ -88,6 +286,46 @@ public class OrderServiceImpl implements IOrderServiceUseCase {
 
     }
 
+    /**
+     * Exporta en NDJSON las órdenes de un rango de fechas con memoria constante.
+     * <p>
+     * Las órdenes se leen con un cursor JDBC y se escriben una por línea a medida que llegan,
+     * sin construir ninguna lista. La primera línea se envía de inmediato y luego se vacía
+     * la salida cada {@value #EXPORT_FLUSH_ROWS} órdenes.
+     * </p>
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param out salida donde se escriben las líneas NDJSON.
+     * @throws UncheckedIOException si falla la escritura en la salida.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public void exportByDateRange(LocalDate from, LocalDate to, OutputStream out) {
+
+        try (Stream<OrderEntity> orders = iOrderRepository.streamByDateRange(from, to)) {
+
+            Iterator<OrderEntity> iterator = orders.iterator();
+            long written = 0;
+
+            while (iterator.hasNext()) {
+                OrderEntity order = iterator.next();
+
+                out.write(objectMapper.writeValueAsBytes(new OrderSummaryDto(order.getId(), order.getUserId(),
+                        order.getDate(), order.getStore(), order.getPaymentMethod(), order.getTotalPrice())));
+                out.write('\n');
+
+                if (++written == 1 || written % EXPORT_FLUSH_ROWS == 0) {
+                    out.flush();
+                }
+            }
+
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error al exportar las órdenes", e);
+        }
+    }
+
     /**
      * Guarda una nueva orden en la base de datos.
      *
@@ -98,17 +336,90 @@ public class OrderServiceImpl implements IOrderServiceUseCase {
     @Override
     public OrderEntity save(OrderEntity orderEntity) {
 
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        orderEntity.setUserId(currentUserId());
+        evictOrdersByUser(orderEntity.getUserId());
 
-        JwtAuthenticationToken jwt = (JwtAuthenticationToken) authentication;
+        OrderEntity saved = iOrderRepository.save(orderEntity);
+        iDailyStoreRevenueRepository.applyDelta(saved.getStore(), saved.getDate(), 1, orZero(saved.getTotalPrice()));
 
-        String userId = jwt.getToken().getSubject();
+        return saved;
 
-        orderEntity.setUserId(userId);
 
-       return iOrderRepository.save(orderEntity);
+    }
 
+    /**
+     * Guarda en bloque un conjunto de órdenes.
+     * <p>
+     * Todas las órdenes se validan en una sola pasada y el usuario se toma del JWT una única vez.
+     * Las órdenes válidas se persisten en tramos de {@value #BULK_CHUNK_SIZE}, cada uno en su propia
+     * transacción e insertado con lotes JDBC; si un tramo falla, solo sus órdenes se reportan como
+     * fallidas y se continúa con el siguiente.
+     * </p>
+     *
+     * @param orders las órdenes a registrar.
+     * @return el resultado de cada orden, en el mismo orden en que se recibieron.
+     * @throws RuntimeException si la lista está vacía o supera el máximo permitido por petición.
+     */
+    @Override
+    public List<BulkItemResultDto> saveAll(List<OrderEntity> orders) {
+
+        if (orders == null || orders.isEmpty()) {
+            throw new RuntimeException("Debes enviar al menos una orden");
+        }
 
+        if (orders.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("No se pueden registrar más de " + MAX_BULK_SIZE + " órdenes por petición");
+        }
+
+        String userId = currentUserId();
+
+        BulkItemResultDto[] results = new BulkItemResultDto[orders.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+
+            OrderEntity order = orders.get(i);
+            Set<ConstraintViolation<OrderEntity>> violations = validator.validate(order);
+
+            if (violations.isEmpty()) {
+                order.setId(null);
+                order.setUserId(userId);
+                validIndexes.add(i);
+            } else {
+                Map<String, String> errors = new HashMap<>();
+                violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(),
+                        "El campo " + violation.getPropertyPath() + " " + violation.getMessage()));
+                results[i] = new BulkItemResultDto(i, null, BulkItemResultDto.INVALID, errors);
+            }
+        }
+
+        for (int from = 0; from < validIndexes.size(); from += BULK_CHUNK_SIZE) {
+
+            List<Integer> chunkIndexes = validIndexes.subList(from, Math.min(from + BULK_CHUNK_SIZE, validIndexes.size()));
+            List<OrderEntity> chunk = chunkIndexes.stream().map(orders::get).toList();
+
+            try {
+                List<OrderEntity> saved = transactionTemplate.execute(status -> {
+                    List<OrderEntity> savedChunk = iOrderRepository.saveAll(chunk);
+                    applyRevenueDeltas(savedChunk);
+                    return savedChunk;
+                });
+
+                for (int j = 0; j < chunkIndexes.size(); j++) {
+                    int index = chunkIndexes.get(j);
+                    results[index] = new BulkItemResultDto(index, saved.get(j).getId(), BulkItemResultDto.CREATED, Map.of());
+                }
+            } catch (RuntimeException e) {
+                for (int index : chunkIndexes) {
+                    results[index] = new BulkItemResultDto(index, null, BulkItemResultDto.FAILED,
+                            Map.of("orden", "No se pudo registrar la orden: " + e.getMessage()));
+                }
+            }
+        }
+
+        evictOrdersByUser(userId);
+
+        return List.of(results);
     }
 
     /**
@@ -129,6 +440,15 @@ public class OrderServiceImpl implements IOrderServiceUseCase {
         }
 
         OrderEntity updatedOrder = order.get();
+        evictOrdersByUser(updatedOrder.getUserId());
+
+        if (!Objects.equals(updatedOrder.getStore(), orderEntity.getStore())
+                || !Objects.equals(updatedOrder.getDate(), orderEntity.getDate())) {
+            BigDecimal total = orZero(updatedOrder.getTotalPrice());
+            iDailyStoreRevenueRepository.applyDelta(updatedOrder.getStore(), updatedOrder.getDate(), -1, total.negate());
+            iDailyStoreRevenueRepository.applyDelta(orderEntity.getStore(), orderEntity.getDate(), 1, total);
+        }
+
         updatedOrder.setDate(orderEntity.getDate());
         updatedOrder.setStore(orderEntity.getStore());
         updatedOrder.setPaymentMethod(orderEntity.getPaymentMethod());
@@ -138,24 +458,76 @@ public class OrderServiceImpl implements IOrderServiceUseCase {
     }
 
 
+    /**
+     * Actualiza únicamente el total de una orden con una sola sentencia UPDATE.
+     *
+     * @param totaPrice nuevo total de la orden.
+     * @param orderId identificador de la orden.
+     * @throws RuntimeException si la orden no existe.
+     */
+    @Transactional
     @Override
     public void updateTotalPrice(BigDecimal totaPrice, Integer orderId) {
 
-        Optional<OrderEntity> db = iOrderRepository.getById(orderId);
+        OrderTotalChange change = iOrderRepository.updateTotalPrice(orderId, totaPrice)
+                .orElseThrow(() -> new RuntimeException("No existe ninguna factura por ese id"));
+
+        evictOrdersByUser(change.getUserId());
+        iDailyStoreRevenueRepository.applyDelta(change.getStore(), change.getDate(), 0,
+                orZero(change.getNewTotal()).subtract(orZero(change.getOldTotal())));
+
+    }
+
+    /**
+     * Actualiza el total de varias órdenes en una sola sentencia.
+     * Si un id se repite, prevalece el último total recibido.
+     *
+     * @param totals pares (id de orden, total).
+     * @return la cantidad de órdenes actualizadas.
+     * @throws RuntimeException si la lista está vacía o contiene pares incompletos.
+     */
+    @Transactional
+    @Override
+    public Integer updateTotalPrices(List<OrderTotalDto> totals) {
+
+        if (totals == null || totals.isEmpty()) {
+            throw new RuntimeException("Debes enviar al menos un total");
+        }
 
-        if (db.isEmpty()) {
-            throw new RuntimeException("No existe ninguna factura por ese id");
+        Map<Integer, BigDecimal> totalsById = new LinkedHashMap<>();
+
+        for (OrderTotalDto total : totals) {
+            if (total.getOrderId() == null || total.getTotalPrice() == null) {
+                throw new RuntimeException("Cada total debe indicar el id de la orden y su valor");
+            }
+            totalsById.put(total.getOrderId(), total.getTotalPrice());
         }
 
-        db.get().setTotalPrice(totaPrice);
+        List<OrderTotalChange> changes = iOrderRepository.updateTotalPrices(totalsById);
+        Map<DailyStoreRevenueEntity.Key, BigDecimal> revenueDeltas = new HashMap<>();
 
-        iOrderRepository.save(db.get());
+        for (OrderTotalChange change : changes) {
+            revenueDeltas.merge(new DailyStoreRevenueEntity.Key(change.getStore(), change.getDate()),
+                    orZero(change.getNewTotal()).subtract(orZero(change.getOldTotal())), BigDecimal::add);
+        }
 
+        changes.stream().map(OrderTotalChange::getUserId).distinct().forEach(this::evictOrdersByUser);
+        revenueDeltas.forEach((key, revenue) -> {
+            if (revenue.signum() != 0) {
+                iDailyStoreRevenueRepository.applyDelta(key.getStore(), key.getDate(), 0, revenue);
+            }
+        });
 
+        return changes.size();
     }
 
     /**
      * Elimina una orden según su identificador único.
+     * <p>
+     * La eliminación de sus productos en msvc-products-orders no se hace aquí: se registra un
+     * evento en el outbox dentro de la misma transacción y {@link OrderOutboxRelay} lo entrega
+     * en segundo plano.
+     * </p>
      *
      * @param id Identificador de la orden a eliminar.
      * @return {@code true} si la eliminación fue exitosa.
@@ -172,29 +544,216 @@ public class OrderServiceImpl implements IOrderServiceUseCase {
         }
 
         iOrderRepository.deleteById(id);
-        rest.deleteById(id);
+        iDailyStoreRevenueRepository.applyDelta(order.get().getStore(), order.get().getDate(), -1,
+                orZero(order.get().getTotalPrice()).negate());
+        evictOrdersByUser(order.get().getUserId());
+        iOrderOutboxRepository.save(OrderOutboxEntity.of(OrderOutboxEntity.ORDER_DELETED, id));
         return true;
 
     }
 
     /**
-     * Obtiene una lista de ordenes pero con detalle minimo filtrada por un usuario en especifico
+     * Obtiene una lista de ordenes pero con detalle minimo filtrada por un usuario en especifico.
+     * Las ordenes se leen ya proyectadas a DTO (id, usuario y fecha), sin cargar las entidades completas.
+     * El resultado se guarda en una caché por usuario que se invalida al crear, actualizar o eliminar
+     * sus órdenes; sin transacción propia, un acierto en caché no toma conexión de la base de datos.
      * @param userId el usuario a buscar para filtrar sus ordenes
      * @return una lista de ordenes asociadas a ese usuario y convertidas en DTO
      */
     @Override
     public List<OrderResponseDto> getOrdersByUser(String userId) {
 
-        List<OrderEntity> order = iOrderRepository.getByUserId(userId);
-        if (order.isEmpty()) {
+        List<OrderResponseDto> orderResponse = ordersByUserCache.get(userId,
+                key -> List.copyOf(iOrderRepository.getByUserId(key)));
+        if (orderResponse.isEmpty()) {
             throw (new RuntimeException("El usuario ingresado no existe"));
         }
 
-        List<OrderResponseDto> orderResponse = order.stream()
-                .map(orderEntity ->
-                        new OrderResponseDto(orderEntity.getId(), orderEntity.getUserId(), orderEntity.getDate()))
-                .toList();
-
         return  orderResponse;
     }
+
+    /**
+     * Obtiene las ventas por tienda y día de un rango de fechas desde el agregado diario,
+     * sin recorrer la tabla de órdenes.
+     *
+     * @param store tienda a consultar, o {@code null} para todas.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return las ventas por tienda y día, ordenadas por fecha y tienda.
+     * @throws RuntimeException si el rango de fechas no es válido.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<DailyStoreRevenueDto> getDailyRevenue(String store, LocalDate from, LocalDate to) {
+
+        validateRange(from, to);
+
+        return iDailyStoreRevenueRepository.getByDateRange(store == null || store.isBlank() ? null : store, from, to);
+    }
+
+    /**
+     * Recalcula el agregado diario de ventas a partir de las órdenes, para cargar datos históricos
+     * o corregir diferencias. Se procesa por tramos de {@value #REVENUE_REBUILD_DAYS} días, cada uno
+     * en su propia transacción, para no mantener bloqueos largos.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return la cantidad de filas (tienda, día) generadas.
+     * @throws RuntimeException si el rango de fechas no es válido.
+     */
+    @Override
+    public Integer rebuildDailyRevenue(LocalDate from, LocalDate to) {
+
+        validateRange(from, to);
+
+        int rows = 0;
+
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(REVENUE_REBUILD_DAYS)) {
+
+            LocalDate chunkStart = start;
+            LocalDate chunkEnd = start.plusDays(REVENUE_REBUILD_DAYS - 1L).isAfter(to)
+                    ? to : start.plusDays(REVENUE_REBUILD_DAYS - 1L);
+
+            Integer chunkRows = transactionTemplate.execute(
+                    status -> iDailyStoreRevenueRepository.rebuild(chunkStart, chunkEnd));
+            rows += chunkRows == null ? 0 : chunkRows;
+        }
+
+        return rows;
+    }
+
+    /**
+     * Suma al agregado diario las órdenes recién creadas, agrupadas por tienda y día
+     * para ejecutar una sola sentencia por grupo.
+     *
+     * @param orders órdenes creadas en la transacción actual
+     */
+    private void applyRevenueDeltas(List<OrderEntity> orders) {
+
+        Map<DailyStoreRevenueEntity.Key, Long> counts = new HashMap<>();
+        Map<DailyStoreRevenueEntity.Key, BigDecimal> revenues = new HashMap<>();
+
+        for (OrderEntity order : orders) {
+            DailyStoreRevenueEntity.Key key = new DailyStoreRevenueEntity.Key(order.getStore(), order.getDate());
+            counts.merge(key, 1L, Long::sum);
+            revenues.merge(key, orZero(order.getTotalPrice()), BigDecimal::add);
+        }
+
+        counts.forEach((key, count) ->
+                iDailyStoreRevenueRepository.applyDelta(key.getStore(), key.getDate(), count, revenues.get(key)));
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    /**
+     * Invalida el historial en caché de un usuario cuando la transacción actual se confirma.
+     * <p>
+     * Invalidar antes del commit permitiría que una lectura concurrente volviera a cargar los
+     * datos anteriores; si no hay transacción activa se invalida de inmediato.
+     * </p>
+     *
+     * @param userId usuario cuyas órdenes cambiaron
+     */
+    private void evictOrdersByUser(String userId) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            ordersByUserCache.invalidate(userId);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                ordersByUserCache.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Codifica una posición del listado como un cursor opaco para el cliente.
+     *
+     * @param position posición en formato {@code fecha|id}
+     * @return el cursor codificado en Base64 URL-safe
+     */
+    private static String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un cursor recibido del cliente.
+     *
+     * @param cursor cursor en Base64 URL-safe
+     * @return las partes de la posición codificada
+     * @throws RuntimeException si el cursor no tiene el formato esperado
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            LocalDate.parse(position[0]);
+            Integer.valueOf(position[1]);
+            return position;
+        } catch (RuntimeException e) {
+            throw new RuntimeException("El cursor de paginación no es válido");
+        }
+    }
+
+    /**
+     * Valida que un rango de fechas esté completo y bien ordenado.
+     *
+     * @param from fecha inicial
+     * @param to fecha final
+     * @throws RuntimeException si falta alguna fecha o la inicial es posterior a la final
+     */
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) {
+            throw new RuntimeException("El rango de fechas no es válido");
+        }
+    }
+
+    /**
+     * Normaliza el tamaño de página solicitado por el cliente.
+     *
+     * @param size tamaño solicitado, puede ser {@code null}
+     * @return el tamaño por defecto si no se indicó, o el solicitado acotado al máximo permitido
+     */
+    private static int pageSize(Integer size) {
+        return size == null || size < 1 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Construye una página a partir de las filas leídas. Se espera que se haya leído una fila
+     * más de las solicitadas: si existe, hay página siguiente y el cursor apunta a la última
+     * orden incluida.
+     *
+     * @param orders filas leídas (hasta {@code pageSize + 1})
+     * @param pageSize tamaño de la página
+     * @return la página con su cursor siguiente
+     */
+    private static CursorPageDto<OrderSummaryDto> toPage(List<OrderSummaryDto> orders, int pageSize) {
+
+        if (orders.size() <= pageSize) {
+            return new CursorPageDto<>(orders, null);
+        }
+
+        List<OrderSummaryDto> page = orders.subList(0, pageSize);
+        OrderSummaryDto last = page.get(pageSize - 1);
+
+        return new CursorPageDto<>(page, encodeCursor(last.getDate() + "|" + last.getId()));
+    }
+
+    /**
+     * Obtiene el identificador del usuario autenticado a partir del JWT de la petición.
+     *
+     * @return el "subject" del token
+     */
+    private static String currentUserId() {
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        JwtAuthenticationToken jwt = (JwtAuthenticationToken) authentication;
+
+        return jwt.getToken().getSubject();
+    }
 }
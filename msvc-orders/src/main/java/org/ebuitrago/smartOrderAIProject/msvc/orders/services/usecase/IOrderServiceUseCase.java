@@ -1,8 +1,16 @@
 package org.ebuitrago.smartOrderAIProject.msvc.orders.services.usecase;
 
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.OrderEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.BulkItemResultDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.DailyStoreRevenueDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchCriteriaDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSearchPageDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderTotalDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.CursorPageDto;
 import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderResponseDto;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.dto.OrderSummaryDto;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -15,11 +23,26 @@ import java.util.Optional;
 public interface IOrderServiceUseCase {
 
     /**
-     * Obtiene una lista de todas las órdenes registradas en el sistema.
+     * Obtiene una página de las órdenes registradas en el sistema, de la más reciente a la más antigua.
      *
-     * @return una lista de objetos {@link OrderEntity} que representan todas las órdenes existentes.
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas; se limita a un máximo por página.
+     * @return una página de {@link OrderSummaryDto} con el cursor de la página siguiente.
+     * @throws RuntimeException si el cursor no es válido.
      */
-    List<OrderEntity> getAll();
+    CursorPageDto<OrderSummaryDto> getAll(String cursor, Integer size);
+
+    /**
+     * Busca órdenes combinando filtros por tienda, método de pago, rango de fechas y rango de total.
+     *
+     * @param criteria filtros de la búsqueda; los no informados se ignoran.
+     * @param cursor cursor devuelto en la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes por página.
+     * @param estimateCount si se debe incluir una estimación de la cantidad total de resultados.
+     * @return la página de órdenes con el cursor de la siguiente.
+     * @throws RuntimeException si los rangos o el cursor no son válidos.
+     */
+    OrderSearchPageDto search(OrderSearchCriteriaDto criteria, String cursor, Integer size, boolean estimateCount);
 
     /**
      * Busca una orden específica por su identificador único.
@@ -40,6 +63,43 @@ public interface IOrderServiceUseCase {
      */
     List<OrderEntity> getByDate(LocalDate orderByDateList);
 
+    /**
+     * Obtiene una página de las órdenes realizadas entre dos fechas, de la más reciente a la más antigua.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas; se limita a un máximo por página.
+     * @return una página de {@link OrderSummaryDto} con el cursor de la página siguiente.
+     * @throws RuntimeException si el rango o el cursor no son válidos.
+     */
+    CursorPageDto<OrderSummaryDto> getByDateRange(LocalDate from, LocalDate to, String cursor, Integer size);
+
+    /**
+     * Obtiene una página de las órdenes de un usuario realizadas entre dos fechas.
+     *
+     * @param userId el usuario a buscar para filtrar sus ordenes.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param cursor cursor devuelto por la página anterior, o {@code null} para la primera página.
+     * @param size cantidad de órdenes solicitadas; se limita a un máximo por página.
+     * @return una página de {@link OrderSummaryDto} con el cursor de la página siguiente.
+     * @throws RuntimeException si el rango o el cursor no son válidos.
+     */
+    CursorPageDto<OrderSummaryDto> getOrdersByUserInRange(String userId, LocalDate from, LocalDate to,
+                                                          String cursor, Integer size);
+
+    /**
+     * Exporta las órdenes de un rango de fechas en formato NDJSON (un objeto JSON por línea),
+     * escribiendo cada orden en la salida a medida que se lee de la base de datos.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @param out salida donde se escriben las líneas NDJSON.
+     * @throws java.io.UncheckedIOException si falla la escritura en la salida.
+     */
+    void exportByDateRange(LocalDate from, LocalDate to, OutputStream out);
+
     /**
      * Guarda una nueva orden en el sistema.
      *
@@ -48,6 +108,16 @@ public interface IOrderServiceUseCase {
      */
     OrderEntity save(OrderEntity orderEntity);
 
+    /**
+     * Guarda en bloque un conjunto de órdenes, validándolas primero y persistiendo
+     * las válidas en transacciones por tramos.
+     *
+     * @param orders las órdenes a registrar.
+     * @return el resultado de cada orden, en el mismo orden en que se recibieron.
+     * @throws RuntimeException si la lista está vacía o supera el máximo permitido por petición.
+     */
+    List<BulkItemResultDto> saveAll(List<OrderEntity> orders);
+
     /**
      * Actualiza una orden existente en el sistema.
      *
@@ -58,8 +128,24 @@ public interface IOrderServiceUseCase {
     OrderEntity update(OrderEntity orderEntity);
 
 
+    /**
+     * Actualiza únicamente el total de una orden.
+     *
+     * @param totaPrice nuevo total de la orden.
+     * @param orderId identificador de la orden.
+     * @throws RuntimeException si la orden no existe.
+     */
     void updateTotalPrice(BigDecimal totaPrice, Integer orderId);
 
+    /**
+     * Actualiza el total de varias órdenes en una sola sentencia.
+     *
+     * @param totals pares (id de orden, total); si un id se repite, prevalece el último.
+     * @return la cantidad de órdenes actualizadas.
+     * @throws RuntimeException si la lista está vacía o contiene pares incompletos.
+     */
+    Integer updateTotalPrices(List<OrderTotalDto> totals);
+
     /**
      * Elimina una orden del sistema por su identificador único.
      *
@@ -77,6 +163,24 @@ public interface IOrderServiceUseCase {
      */
     List<OrderResponseDto> getOrdersByUser(String userId);
 
+    /**
+     * Obtiene las ventas por tienda y día de un rango de fechas desde el agregado diario.
+     *
+     * @param store tienda a consultar, o {@code null} para todas.
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return las ventas por tienda y día.
+     * @throws RuntimeException si el rango de fechas no es válido.
+     */
+    List<DailyStoreRevenueDto> getDailyRevenue(String store, LocalDate from, LocalDate to);
 
+    /**
+     * Recalcula el agregado diario de ventas de un rango de fechas a partir de las órdenes.
+     *
+     * @param from fecha inicial (inclusive).
+     * @param to fecha final (inclusive).
+     * @return la cantidad de filas (tienda, día) generadas.
+     * @throws RuntimeException si el rango de fechas no es válido.
+     */
+    Integer rebuildDailyRevenue(LocalDate from, LocalDate to);
 }
-
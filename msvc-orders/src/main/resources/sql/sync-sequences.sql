@@ -0,0 +1,4 @@
+-- Las tablas se crearon originalmente con columnas IDENTITY. Al pasar a secuencias con
+-- allocationSize = 50, la secuencia debe quedar por encima del id más alto ya usado.
+-- GREATEST evita retroceder la secuencia si otra instancia ya reservó bloques.
+SELECT setval('orders_seq', GREATEST((SELECT COALESCE(MAX(id), 0) + 50 FROM orders), (SELECT last_value FROM orders_seq)));
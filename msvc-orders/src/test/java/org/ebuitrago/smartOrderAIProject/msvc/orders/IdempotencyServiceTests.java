@@ -0,0 +1,246 @@
+package org.ebuitrago.smartOrderAIProject.msvc.orders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.domain.IdempotencyKeyEntity;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.repositories.IIdempotencyKeyRepository;
+import org.ebuitrago.smartOrderAIProject.msvc.orders.services.IdempotencyService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pruebas de {@link IdempotencyService} sobre un repositorio de claves en memoria:
+ * una sola ejecución por clave, reintentos que reciben la respuesta guardada y
+ * liberación de la clave cuando la operación falla.
+ */
+class IdempotencyServiceTests {
+
+    private static final String OPERATION = "POST /orders";
+
+    private final InMemoryIdempotencyKeyRepository repository = new InMemoryIdempotencyKeyRepository();
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyService(repository, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(service, "lease", Duration.ofMinutes(2));
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(service, "purgeBatchSize", 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentDuplicateWaitsAndReplaysFirstResponse() throws Exception {
+
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch finishFirst = new CountDownLatch(1);
+
+        Future<ResponseEntity<?>> first = callers.submit(() -> service.execute("k-1", OPERATION, Map.of("store", "A"),
+                () -> {
+                    executions.incrementAndGet();
+                    firstRunning.countDown();
+                    await(finishFirst);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 7));
+                }));
+
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+
+        Future<ResponseEntity<?>> duplicate = callers.submit(() -> service.execute("k-1", OPERATION,
+                Map.of("store", "A"), () -> {
+                    executions.incrementAndGet();
+                    return ResponseEntity.ok("segunda ejecución");
+                }));
+
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone(), "el duplicado debe esperar a la primera ejecución");
+        finishFirst.countDown();
+
+        ResponseEntity<?> original = first.get(5, TimeUnit.SECONDS);
+        ResponseEntity<?> replayed = duplicate.get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, original.getStatusCode());
+        assertNull(original.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(HttpStatus.CREATED, replayed.getStatusCode());
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("{\"id\":7}", replayed.getBody());
+    }
+
+    @Test
+    void keyReusedWithDifferentRequestIsRejected() {
+
+        service.execute("k-2", OPERATION, Map.of("store", "A"), () -> ResponseEntity.ok("creada"));
+
+        ResponseEntity<?> response = service.execute("k-2", OPERATION, Map.of("store", "B"),
+                () -> ResponseEntity.ok("no debe ejecutarse"));
+
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+    }
+
+    @Test
+    void failedExecutionReleasesKeySoRetryRunsAgain() {
+
+        AtomicInteger executions = new AtomicInteger();
+
+        assertThrows(RuntimeException.class, () -> service.execute("k-3", OPERATION, "body", () -> {
+            executions.incrementAndGet();
+            throw new RuntimeException("falla");
+        }));
+
+        ResponseEntity<?> rejected = service.execute("k-3", OPERATION, "body", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.badRequest().body("datos inválidos");
+        });
+
+        ResponseEntity<?> retried = service.execute("k-3", OPERATION, "body", () -> {
+            executions.incrementAndGet();
+            return ResponseEntity.ok("creada");
+        });
+
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+        assertEquals(HttpStatus.OK, retried.getStatusCode());
+        assertNull(retried.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(3, executions.get());
+    }
+
+    @Test
+    void duplicateGivesUpWithConflictAfterWaitTimeout() throws Exception {
+
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofMillis(100));
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CountDownLatch finishFirst = new CountDownLatch(1);
+
+        Future<ResponseEntity<?>> first = callers.submit(() -> service.execute("k-4", OPERATION, "body", () -> {
+            firstRunning.countDown();
+            await(finishFirst);
+            return ResponseEntity.ok("creada");
+        }));
+        assertTrue(firstRunning.await(5, TimeUnit.SECONDS));
+
+        ResponseEntity<?> response = service.execute("k-4", OPERATION, "body",
+                () -> ResponseEntity.ok("no debe ejecutarse"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        finishFirst.countDown();
+        assertEquals(HttpStatus.OK, first.get(5, TimeUnit.SECONDS).getStatusCode());
+    }
+
+    @Test
+    void requestWithoutKeyAlwaysRuns() {
+
+        AtomicInteger executions = new AtomicInteger();
+
+        service.execute(null, OPERATION, "body", () -> ResponseEntity.ok(executions.incrementAndGet()));
+        service.execute(null, OPERATION, "body", () -> ResponseEntity.ok(executions.incrementAndGet()));
+
+        assertEquals(2, executions.get());
+        assertTrue(repository.isEmpty());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Repositorio de claves en memoria con la misma semántica que el de base de datos:
+     * una clave se puede reservar si no existe o si su reserva o retención ya venció.
+     */
+    private static final class InMemoryIdempotencyKeyRepository implements IIdempotencyKeyRepository {
+
+        private final Map<String, IdempotencyKeyEntity> keys = new HashMap<>();
+
+        @Override
+        public synchronized boolean claim(String key, String owner, String requestHash, Instant leaseUntil) {
+
+            IdempotencyKeyEntity current = keys.get(owner + "/" + key);
+            if (current != null && current.getExpiresAt().isAfter(Instant.now())) {
+                return false;
+            }
+
+            IdempotencyKeyEntity entity = new IdempotencyKeyEntity();
+            entity.setIdempotencyKey(key);
+            entity.setOwner(owner);
+            entity.setRequestHash(requestHash);
+            entity.setStatus(IdempotencyKeyEntity.IN_PROGRESS);
+            entity.setExpiresAt(leaseUntil);
+            keys.put(owner + "/" + key, entity);
+            return true;
+        }
+
+        @Override
+        public synchronized Optional<IdempotencyKeyEntity> findByKey(String key, String owner) {
+            return Optional.ofNullable(keys.get(owner + "/" + key)).map(this::copy);
+        }
+
+        @Override
+        public synchronized void complete(String key, String owner, int responseStatus, String responseBody,
+                                          Instant expiresAt) {
+            IdempotencyKeyEntity entity = keys.get(owner + "/" + key);
+            entity.setStatus(IdempotencyKeyEntity.COMPLETED);
+            entity.setResponseStatus(responseStatus);
+            entity.setResponseBody(responseBody);
+            entity.setExpiresAt(expiresAt);
+        }
+
+        @Override
+        public synchronized void release(String key, String owner) {
+            keys.remove(owner + "/" + key);
+        }
+
+        @Override
+        public synchronized int deleteExpired(int limit) {
+            return 0;
+        }
+
+        synchronized boolean isEmpty() {
+            return keys.isEmpty();
+        }
+
+        private IdempotencyKeyEntity copy(IdempotencyKeyEntity entity) {
+            IdempotencyKeyEntity copy = new IdempotencyKeyEntity();
+            copy.setIdempotencyKey(entity.getIdempotencyKey());
+            copy.setOwner(entity.getOwner());
+            copy.setRequestHash(entity.getRequestHash());
+            copy.setStatus(entity.getStatus());
+            copy.setResponseStatus(entity.getResponseStatus());
+            copy.setResponseBody(entity.getResponseBody());
+            copy.setExpiresAt(entity.getExpiresAt());
+            return copy;
+        }
+    }
+}
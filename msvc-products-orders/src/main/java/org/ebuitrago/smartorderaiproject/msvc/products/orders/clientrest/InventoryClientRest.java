@@ -2,13 +2,14 @@ package org.ebuitrago.smartorderaiproject.msvc.products.orders.clientrest;
 
 
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.config.FeignConfig;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.InventoryItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductItemDto;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PutMapping;
-import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Cliente Feign para comunicarse con el microservicio de inventario.
@@ -24,13 +25,41 @@ public interface InventoryClientRest {
      *
      * @param productCode código del producto cuyo stock será reducido
      * @param quantity    cantidad a descontar del inventario
+     * @return el inventario actualizado, con el precio unitario del producto
      */
     @PutMapping("/{productCode}/decrement-stock")
-    void decrementStock(@PathVariable String productCode, @RequestParam Integer quantity);
+    InventoryItemDto decrementStock(@PathVariable String productCode, @RequestParam Integer quantity);
 
 
     @GetMapping("/unit-price-by-product/{productCode}")
     BigDecimal getUnitPriceByProductCode(@PathVariable String productCode);
 
+    /**
+     * Obtiene en una sola petición el precio unitario de varios productos.
+     *
+     * @param productCodes códigos de los productos a consultar
+     * @return mapa código de producto → precio unitario
+     */
+    @PostMapping("/unit-prices-by-products")
+    Map<String, BigDecimal> getUnitPricesByProductCodes(@RequestBody List<String> productCodes);
+
+    /**
+     * Descuenta en una sola petición, y en una sola transacción del inventario,
+     * el stock de todos los productos indicados.
+     *
+     * @param items productos con la cantidad a descontar
+     */
+    @PutMapping("/decrement-stock")
+    List<InventoryItemDto> decrementStockBatch(@RequestBody List<ProductItemDto> items);
+
+    /**
+     * Reintegra en una sola petición el stock descontado previamente.
+     * Se usa como compensación cuando la orden no se pudo registrar.
+     *
+     * @param items productos con la cantidad a reintegrar
+     */
+    @PutMapping("/increment-stock")
+    void incrementStockBatch(@RequestBody List<ProductItemDto> items);
+
 }
 
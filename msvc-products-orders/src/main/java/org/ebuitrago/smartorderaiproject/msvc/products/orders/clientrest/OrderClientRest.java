@@ -1,10 +1,13 @@
 package org.ebuitrago.smartorderaiproject.msvc.products.orders.clientrest;
 
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.config.FeignConfig;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.OrderHeaderDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.OrderRequestDto;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
@@ -32,6 +35,12 @@ public interface OrderClientRest {
     @PutMapping("/{id}/total")
     void updateTotalPrice(@PathVariable Integer id, @RequestBody BigDecimal totalPrice);
 
+    @PostMapping
+    OrderHeaderDto save(@RequestBody OrderHeaderDto order);
+
+    @DeleteMapping("/{id}")
+    Boolean deleteById(@PathVariable Integer id);
+
 
 
 
@@ -0,0 +1,44 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Ejecutor de las llamadas por producto al inventario.
+ * <p>
+ * En Java 21 o superior se usan hilos virtuales, limitados a {@code max-threads} tareas
+ * simultáneas; en versiones anteriores, un pool fijo de hilos con una cola acotada.
+ * </p>
+ */
+@Configuration
+@EnableConfigurationProperties(FanOutProperties.class)
+public class FanOutConfig {
+
+    private static final String THREAD_NAME_PREFIX = "inventory-fan-out-";
+
+    @Bean
+    public AsyncTaskExecutor inventoryFanOutExecutor(FanOutProperties properties) {
+
+        if (properties.isVirtualThreads() && Runtime.version().feature() >= 21) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(THREAD_NAME_PREFIX);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(properties.getMaxThreads());
+            return executor;
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(THREAD_NAME_PREFIX);
+        executor.setCorePoolSize(properties.getMaxThreads());
+        executor.setMaxPoolSize(properties.getMaxThreads());
+        executor.setQueueCapacity(properties.getQueueCapacity());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
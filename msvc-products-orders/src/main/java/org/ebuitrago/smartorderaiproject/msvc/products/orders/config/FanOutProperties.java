@@ -0,0 +1,44 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propiedades de la ejecución en paralelo de las llamadas por producto al inventario.
+ * <p>
+ * Se configuran bajo {@code msvc.fan-out}. Con el modo desactivado, el registro de
+ * productos de una orden usa las peticiones en lote al inventario.
+ * </p>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "msvc.fan-out")
+public class FanOutProperties {
+
+    /**
+     * Si se reserva y se obtiene el precio de cada producto con una llamada propia, en paralelo.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Máximo de llamadas en curso al mismo tiempo para una sola orden.
+     */
+    private int maxPerOrder = 8;
+
+    /**
+     * Máximo de hilos (o de tareas simultáneas, con hilos virtuales) para todas las órdenes.
+     */
+    private int maxThreads = 32;
+
+    /**
+     * Tareas que pueden esperar en cola cuando todos los hilos están ocupados.
+     * Si la cola se llena, la tarea se ejecuta en el hilo de la petición.
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Si se usan hilos virtuales cuando la JVM los soporta (Java 21 o superior).
+     */
+    private boolean virtualThreads = true;
+}
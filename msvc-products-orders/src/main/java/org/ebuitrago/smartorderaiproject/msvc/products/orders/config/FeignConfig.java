@@ -1,7 +1,10 @@
 package org.ebuitrago.smartorderaiproject.msvc.products.orders.config;
 
 
+import feign.Client;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.Authentication;
@@ -10,6 +13,7 @@ import org.springframework.security.oauth2.server.resource.authentication.JwtAut
 
 
 @Configuration
+@EnableConfigurationProperties(HttpClientPoolProperties.class)
 public class FeignConfig {
 
     @Bean
@@ -30,5 +34,9 @@ public class FeignConfig {
         };
     }
 
+    @Bean
+    public Client feignClient(HttpClientPoolProperties properties, MeterRegistry meterRegistry) {
+        return new PooledFeignClient(properties, meterRegistry);
+    }
 
 }
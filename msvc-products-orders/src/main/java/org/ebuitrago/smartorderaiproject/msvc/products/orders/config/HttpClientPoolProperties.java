@@ -0,0 +1,72 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Propiedades del pool de conexiones HTTP de los clientes Feign.
+ * <p>
+ * Cada microservicio destino tiene su propio pool, configurado bajo
+ * {@code msvc.http.clients.<nombre-del-feign-client>}. Los destinos que no
+ * aparecen en la configuración usan los valores por defecto de {@link Pool}.
+ * </p>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "msvc.http")
+public class HttpClientPoolProperties {
+
+    /**
+     * Configuración del pool por nombre de cliente Feign (ej: "msvc-inventory").
+     */
+    private Map<String, Pool> clients = new HashMap<>();
+
+    /**
+     * Obtiene la configuración del pool de un cliente, o la configuración por defecto
+     * si el cliente no está declarado.
+     *
+     * @param clientName nombre del cliente Feign
+     * @return configuración del pool
+     */
+    public Pool forClient(String clientName) {
+        return clients.getOrDefault(clientName, new Pool());
+    }
+
+    /**
+     * Límites y tiempos de un pool de conexiones hacia un único destino.
+     */
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /**
+         * Máximo de conexiones abiertas simultáneamente hacia el destino.
+         */
+        private int maxConnections = 20;
+
+        /**
+         * Tiempo máximo para establecer la conexión TCP.
+         */
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        /**
+         * Tiempo máximo de espera de la respuesta.
+         */
+        private Duration readTimeout = Duration.ofSeconds(10);
+
+        /**
+         * Tiempo que una conexión puede permanecer ociosa en el pool antes de cerrarse.
+         */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Tiempo de vida máximo de una conexión keep-alive, aunque siga en uso.
+         */
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+}
@@ -3,7 +3,9 @@ package org.ebuitrago.smartorderaiproject.msvc.products.orders.controllers;
 
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.CheckoutRequestDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductListItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.services.IdempotencyService;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.services.usacase.IProductOrderUseCase;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -26,6 +28,7 @@ import java.util.Map;
 public class ProductOrderController {
 
     private final IProductOrderUseCase productOrderUseCase;
+    private final IdempotencyService idempotencyService;
 
     /**
      * Obtiene todos los registros de productos-orden.
@@ -55,26 +58,56 @@ public class ProductOrderController {
     /**
      * Crea o actualiza un registro de ProductOrder.
      *
+     * Con el encabezado {@code Idempotency-Key}, un reintento con la misma clave devuelve
+     * la respuesta original sin volver a descontar stock ni insertar líneas.
+     *
+     * @param idempotencyKey clave de idempotencia opcional enviada por el cliente
      * @param requestDto datos de la lista de productos a registrar
      * @param result validación del body
      * @return entidad creada o actualizada
      */
     @PostMapping
-    public ResponseEntity<?> save(@Valid @RequestBody ProductListItemDto requestDto, BindingResult result) {
+    public ResponseEntity<?> save(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                  @Valid @RequestBody ProductListItemDto requestDto, BindingResult result) {
 
         if (result.hasErrors()) {
             validar(result);
         }
 
-        try {
-            return ResponseEntity.status(HttpStatus.CREATED).body(productOrderUseCase.save(requestDto));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        return idempotencyService.execute(idempotencyKey, "POST /products-orders", requestDto, () -> {
+            try {
+                return ResponseEntity.status(HttpStatus.CREATED).body(productOrderUseCase.save(requestDto));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
     }
 
 
 
+    /**
+     * Registra una orden completa (encabezado y productos) en una sola petición
+     * y devuelve la orden con sus líneas y su total.
+     *
+     * Acepta el encabezado {@code Idempotency-Key} igual que {@link #save}.
+     *
+     * @param idempotencyKey clave de idempotencia opcional enviada por el cliente
+     * @param requestDto encabezado de la orden y sus productos
+     * @return la orden creada o un mensaje de error
+     */
+    @PostMapping("/checkout")
+    public ResponseEntity<?> checkout(@RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+                                      @RequestBody CheckoutRequestDto requestDto) {
+
+        return idempotencyService.execute(idempotencyKey, "POST /products-orders/checkout", requestDto, () -> {
+            try {
+                return ResponseEntity.status(HttpStatus.CREATED).body(productOrderUseCase.checkout(requestDto));
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        });
+    }
+
     /**
      * Elimina un registro por ID de orden.
      *
@@ -0,0 +1,70 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Clave de idempotencia enviada por un cliente en el encabezado {@code Idempotency-Key}.
+ * <p>
+ * Mientras la petición se ejecuta la fila queda en {@link #IN_PROGRESS}; al terminar bien se guarda
+ * la respuesta para devolverla en los reintentos. {@code expiresAt} es el fin de la reserva mientras
+ * está en curso y el fin de la retención una vez completada.
+ * </p>
+ */
+@Data
+@Entity
+@IdClass(IdempotencyKeyEntity.Key.class)
+@Table(name = "idempotency_keys",
+       indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyKeyEntity {
+
+    public static final String IN_PROGRESS = "IN_PROGRESS";
+
+    public static final String COMPLETED = "COMPLETED";
+
+    @Id
+    @Column(name = "idempotency_key", length = 255)
+    private String idempotencyKey;
+
+    /**
+     * Usuario que envió la clave; dos usuarios pueden usar la misma clave sin interferir.
+     */
+    @Id
+    @Column(length = 255)
+    private String owner;
+
+    /**
+     * Huella SHA-256 de la operación y el cuerpo de la petición original.
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "response_status")
+    private Integer responseStatus;
+
+    @Column(name = "response_body", columnDefinition = "text")
+    private String responseBody;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Llave compuesta (clave, usuario).
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        private String idempotencyKey;
+
+        private String owner;
+    }
+}
@@ -20,7 +20,8 @@ import java.util.List;
 public class ProductOrderEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_orders_seq")
+    @SequenceGenerator(name = "products_orders_seq", sequenceName = "products_orders_seq", allocationSize = 50)
     private Integer id;
 
     @Column(name = "product_code", nullable = false)
@@ -0,0 +1,27 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Datos de un checkout: el encabezado de la orden y sus productos en una sola petición.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequestDto {
+
+    private LocalDate date;
+
+    private String store;
+
+    private String paymentMethod;
+
+    private List<ProductItemDto> items;
+
+}
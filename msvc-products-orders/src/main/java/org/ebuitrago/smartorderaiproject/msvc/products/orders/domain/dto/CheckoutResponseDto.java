@@ -0,0 +1,35 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.ProductOrderEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Orden completa resultante de un checkout: encabezado, líneas con su precio y total.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResponseDto {
+
+    private Integer orderId;
+
+    private String userId;
+
+    private LocalDate date;
+
+    private String store;
+
+    private String paymentMethod;
+
+    private BigDecimal totalPrice;
+
+    private List<ProductOrderEntity> items;
+
+}
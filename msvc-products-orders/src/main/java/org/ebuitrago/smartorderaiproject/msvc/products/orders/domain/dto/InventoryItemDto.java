@@ -0,0 +1,24 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+/**
+ * Estado de inventario de un producto devuelto por msvc-inventory tras descontar stock.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryItemDto {
+
+    private String productCode;
+
+    private Integer stockQuantity;
+
+    private BigDecimal unitPrice;
+
+}
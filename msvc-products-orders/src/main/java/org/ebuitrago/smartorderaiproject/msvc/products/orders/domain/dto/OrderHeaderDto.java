@@ -0,0 +1,32 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Encabezado de una orden tal como lo recibe y devuelve msvc-orders.
+ */
+@Getter@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OrderHeaderDto {
+
+    private Integer id;
+
+    private String userId;
+
+    private LocalDate date;
+
+    private String store;
+
+    private String paymentMethod;
+
+    private BigDecimal totalPrice;
+
+}
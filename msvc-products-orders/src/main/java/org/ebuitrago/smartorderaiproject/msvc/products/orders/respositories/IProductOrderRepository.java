@@ -35,10 +35,26 @@ public interface IProductOrderRepository {
     ProductOrderEntity save(ProductOrderEntity productOrderEntity);
 
     /**
-     * Elimina una relación producto-orden según el ID de la orden.
+     * Guarda en bloque una lista de relaciones producto-orden.
+     *
+     * @param productOrders entidades a guardar.
+     * @return las entidades persistidas.
+     */
+    List<ProductOrderEntity> saveAll(List<ProductOrderEntity> productOrders);
+
+    /**
+     * Elimina en bloque las relaciones producto-orden indicadas.
+     *
+     * @param productOrders entidades a eliminar.
+     */
+    void deleteAll(List<ProductOrderEntity> productOrders);
+
+    /**
+     * Elimina todas las relaciones producto-orden de una orden.
      *
      * @param orderId identificador de la orden.
+     * @return cantidad de líneas eliminadas.
      */
-    void deleteByOrderId(Integer orderId);
+    int deleteByOrderId(Integer orderId);
 }
 
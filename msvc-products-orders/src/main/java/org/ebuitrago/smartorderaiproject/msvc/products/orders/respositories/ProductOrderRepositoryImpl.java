@@ -36,7 +36,17 @@ public class ProductOrderRepositoryImpl implements  IProductOrderRepository {
     }
 
     @Override
-    public void deleteByOrderId(Integer orderId) {
-        jpaRepository.deleteByOrderId(orderId);
+    public List<ProductOrderEntity> saveAll(List<ProductOrderEntity> productOrders) {
+        return jpaRepository.saveAll(productOrders);
+    }
+
+    @Override
+    public void deleteAll(List<ProductOrderEntity> productOrders) {
+        jpaRepository.deleteAllInBatch(productOrders);
+    }
+
+    @Override
+    public int deleteByOrderId(Integer orderId) {
+        return jpaRepository.deleteAllByOrderId(orderId);
     }
 }
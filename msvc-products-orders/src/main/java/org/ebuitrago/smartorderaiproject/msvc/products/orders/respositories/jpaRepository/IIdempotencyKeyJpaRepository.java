@@ -0,0 +1,64 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.respositories.jpaRepository;
+
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.IdempotencyKeyEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.Instant;
+
+/**
+ * Repositorio JPA para las claves de idempotencia {@link IdempotencyKeyEntity}.
+ * Cada sentencia se confirma por separado para que las demás peticiones vean el estado de inmediato.
+ */
+public interface IIdempotencyKeyJpaRepository
+        extends JpaRepository<IdempotencyKeyEntity, IdempotencyKeyEntity.Key> {
+
+    /**
+     * Reserva la clave en una sola sentencia. Si ya existe solo se reemplaza cuando venció,
+     * es decir, cuando terminó su retención o cuando quien la reservó no terminó a tiempo.
+     *
+     * @return 1 si la reserva es de quien llama, 0 si otra petición la tiene.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, owner, request_hash, status, expires_at) " +
+            "VALUES (:key, :owner, :requestHash, 'IN_PROGRESS', :leaseUntil) " +
+            "ON CONFLICT (idempotency_key, owner) DO UPDATE SET " +
+            "request_hash = EXCLUDED.request_hash, status = EXCLUDED.status, " +
+            "response_status = NULL, response_body = NULL, expires_at = EXCLUDED.expires_at " +
+            "WHERE idempotency_keys.expires_at < :now", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("owner") String owner, @Param("requestHash") String requestHash,
+              @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    /**
+     * Guarda la respuesta de la petición y extiende la retención de la clave.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE idempotency_keys SET status = 'COMPLETED', response_status = :responseStatus, " +
+            "response_body = :responseBody, expires_at = :expiresAt " +
+            "WHERE idempotency_key = :key AND owner = :owner", nativeQuery = true)
+    int complete(@Param("key") String key, @Param("owner") String owner,
+                 @Param("responseStatus") int responseStatus, @Param("responseBody") String responseBody,
+                 @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Libera una reserva en curso para que un reintento pueda ejecutar la petición.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys " +
+            "WHERE idempotency_key = :key AND owner = :owner AND status = 'IN_PROGRESS'", nativeQuery = true)
+    int release(@Param("key") String key, @Param("owner") String owner);
+
+    /**
+     * Borra un lote de claves vencidas.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE ctid IN (" +
+            "SELECT ctid FROM idempotency_keys WHERE expires_at < :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") Instant now, @Param("limit") int limit);
+}
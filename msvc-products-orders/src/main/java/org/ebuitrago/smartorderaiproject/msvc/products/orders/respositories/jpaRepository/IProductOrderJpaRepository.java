@@ -3,6 +3,8 @@ package org.ebuitrago.smartorderaiproject.msvc.products.orders.respositories.jpa
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.ProductOrderEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -16,7 +18,14 @@ public interface IProductOrderJpaRepository extends JpaRepository<ProductOrderEn
 
     Optional<ProductOrderEntity> findByOrderId(Integer orderId);
 
+    /**
+     * Elimina todas las líneas de una orden con una sola sentencia DELETE.
+     *
+     * @param orderId identificador de la orden.
+     * @return cantidad de líneas eliminadas ({@code 0} si la orden no tenía líneas).
+     */
     @Transactional
     @Modifying
-    void deleteByOrderId(Integer orderId);
+    @Query("DELETE FROM ProductOrderEntity p WHERE p.orderId = :orderId")
+    int deleteAllByOrderId(@Param("orderId") Integer orderId);
 }
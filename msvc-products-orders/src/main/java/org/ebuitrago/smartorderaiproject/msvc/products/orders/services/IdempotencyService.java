@@ -0,0 +1,171 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.services;
+
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.IdempotencyKeyEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.respositories.IIdempotencyKeyRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta a lo sumo una vez las peticiones que llegan con el encabezado {@code Idempotency-Key}.
+ * <p>
+ * La primera petición reserva la clave y se ejecuta; si termina con un código 2xx su respuesta queda
+ * guardada durante {@code msvc.idempotency.ttl} y los reintentos la reciben sin volver a ejecutarse.
+ * Si termina con error la reserva se libera y un reintento vuelve a ejecutar la operación.
+ * Un duplicado que llega mientras la primera sigue en curso espera su resultado en lugar de competir.
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final Duration MAX_POLL_INTERVAL = Duration.ofMillis(500);
+
+    private final IIdempotencyKeyRepository iIdempotencyKeyRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${msvc.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${msvc.idempotency.lease:2m}")
+    private Duration lease;
+
+    @Value("${msvc.idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+
+    @Value("${msvc.idempotency.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    /**
+     * Ejecuta la operación una sola vez por clave, o devuelve la respuesta guardada de la primera ejecución.
+     *
+     * @param key valor del encabezado {@code Idempotency-Key}; sin clave la operación se ejecuta siempre.
+     * @param operation nombre de la operación, por ejemplo {@code "POST /products-orders"}.
+     * @param request cuerpo de la petición, para detectar una clave reutilizada con otros datos.
+     * @param action la operación a ejecutar.
+     * @return la respuesta de la operación o la guardada.
+     */
+    public ResponseEntity<?> execute(String key, String operation, Object request,
+                                     Supplier<ResponseEntity<?>> action) {
+
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("La clave de idempotencia no puede superar "
+                    + MAX_KEY_LENGTH + " caracteres");
+        }
+
+        String owner = currentOwner();
+        String requestHash = hash(operation, request);
+        Instant deadline = Instant.now().plus(waitTimeout);
+        Duration pollInterval = Duration.ofMillis(20);
+
+        while (true) {
+            if (iIdempotencyKeyRepository.claim(key, owner, requestHash, Instant.now().plus(lease))) {
+                return executeClaimed(key, owner, action);
+            }
+
+            Optional<IdempotencyKeyEntity> stored = iIdempotencyKeyRepository.findByKey(key, owner);
+
+            if (stored.isPresent() && !stored.get().getRequestHash().equals(requestHash)) {
+                return ResponseEntity.unprocessableEntity()
+                        .body("La clave de idempotencia ya se usó con una petición diferente");
+            }
+            if (stored.isPresent() && IdempotencyKeyEntity.COMPLETED.equals(stored.get().getStatus())) {
+                return ResponseEntity.status(stored.get().getResponseStatus())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotent-Replayed", "true")
+                        .body(stored.get().getResponseBody());
+            }
+            if (Instant.now().isAfter(deadline)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("La petición con esta clave de idempotencia todavía está en curso");
+            }
+
+            try {
+                Thread.sleep(pollInterval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body("La petición con esta clave de idempotencia todavía está en curso");
+            }
+            pollInterval = pollInterval.multipliedBy(2).compareTo(MAX_POLL_INTERVAL) > 0
+                    ? MAX_POLL_INTERVAL : pollInterval.multipliedBy(2);
+        }
+    }
+
+    private ResponseEntity<?> executeClaimed(String key, String owner, Supplier<ResponseEntity<?>> action) {
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            iIdempotencyKeyRepository.release(key, owner);
+            throw e;
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            iIdempotencyKeyRepository.release(key, owner);
+            return response;
+        }
+
+        try {
+            iIdempotencyKeyRepository.complete(key, owner, response.getStatusCode().value(),
+                    objectMapper.writeValueAsString(response.getBody()), Instant.now().plus(ttl));
+        } catch (JsonProcessingException e) {
+            iIdempotencyKeyRepository.release(key, owner);
+        }
+        return response;
+    }
+
+    /**
+     * Borra las claves cuya retención terminó.
+     */
+    @Scheduled(fixedDelayString = "${msvc.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int deleted;
+        do {
+            deleted = iIdempotencyKeyRepository.deleteExpired(purgeBatchSize);
+        } while (deleted == purgeBatchSize);
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String currentOwner() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonymous";
+    }
+}
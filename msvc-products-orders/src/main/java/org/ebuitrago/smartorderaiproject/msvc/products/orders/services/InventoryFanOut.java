@@ -0,0 +1,246 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders.services;
+
+import feign.FeignException;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.clientrest.InventoryClientRest;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.config.FanOutProperties;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.InventoryItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductItemDto;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Descuenta el stock de los productos de una orden con una llamada por producto, en paralelo.
+ * <p>
+ * Cada llamada devuelve el inventario actualizado, por lo que reserva el stock y trae el
+ * precio unitario a la vez. Las tareas se envían al ejecutor envueltas en
+ * {@link DelegatingSecurityContextExecutor}, así el interceptor de Feign encuentra en el hilo
+ * de trabajo el mismo JWT que en el hilo de la petición.
+ * </p>
+ * <p>
+ * Nunca hay más de {@code max-per-order} llamadas en curso para la misma orden. Ante el primer
+ * error (o si se interrumpe el hilo de la petición) se cancelan todas las tareas pendientes: las
+ * que no empezaron ya no llaman al inventario y las que están en curso se interrumpen. Antes de
+ * responder se espera a que terminen las que llegaron a empezar, para conocer su resultado y
+ * devolver el stock de todas las que sí se descontaron.
+ * </p>
+ */
+@Component
+public class InventoryFanOut {
+
+    private static final int PENDING = 0;
+    private static final int RUNNING = 1;
+    private static final int CANCELLED = 2;
+    private static final int UNKNOWN = 3;
+
+    private final InventoryClientRest inventoryClientRest;
+    private final FanOutProperties properties;
+    private final Executor executor;
+
+    public InventoryFanOut(InventoryClientRest inventoryClientRest,
+                           FanOutProperties properties,
+                           @Qualifier("inventoryFanOutExecutor") AsyncTaskExecutor executor) {
+        this.inventoryClientRest = inventoryClientRest;
+        this.properties = properties;
+        this.executor = new DelegatingSecurityContextExecutor(executor);
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Descuenta el stock de cada producto con su propia llamada al inventario.
+     *
+     * @param items productos con la cantidad a descontar
+     * @return el inventario actualizado de cada producto, en el mismo orden que {@code items}
+     * @throws RuntimeException si algún descuento falla; los ya aplicados se revierten
+     */
+    public List<InventoryItemDto> decrementEach(List<ProductItemDto> items) {
+
+        int size = items.size();
+        if (size == 0) {
+            return List.of();
+        }
+
+        Batch batch = new Batch(items);
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+
+        int window = Math.max(1, Math.min(properties.getMaxPerOrder(), size));
+        while (batch.futures.size() < window) {
+            submit(completion, batch);
+        }
+
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        int completed = 0;
+
+        while (failure == null && completed < batch.futures.size()) {
+            try {
+                completion.take().get();
+            } catch (ExecutionException e) {
+                failure = toRuntimeException(e.getCause());
+            } catch (InterruptedException e) {
+                interrupted = true;
+                failure = new RuntimeException("Se interrumpió la actualización del inventario");
+            }
+            completed++;
+
+            if (failure == null && batch.futures.size() < size) {
+                submit(completion, batch);
+            }
+        }
+
+        if (failure != null) {
+            cancelOutstanding(batch);
+            interrupted |= awaitStarted(batch);
+            releaseReserved(batch, failure);
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            throw failure;
+        }
+
+        return Arrays.asList(batch.results);
+    }
+
+    private void submit(CompletionService<Void> completion, Batch batch) {
+
+        int index = batch.futures.size();
+        ProductItemDto item = batch.items.get(index);
+
+        batch.futures.add(completion.submit(() -> {
+            if (!batch.states.compareAndSet(index, PENDING, RUNNING)) {
+                return null;
+            }
+            try {
+                batch.results[index] = inventoryClientRest.decrementStock(item.getProductCode(), item.getQuantity());
+            } catch (RuntimeException e) {
+                if (Thread.currentThread().isInterrupted()) {
+                    // La llamada se cortó al cancelarla: el inventario pudo haberla aplicado o no.
+                    batch.states.set(index, UNKNOWN);
+                }
+                throw e;
+            } finally {
+                batch.finished[index].countDown();
+            }
+            return null;
+        }));
+    }
+
+    /**
+     * Marca como canceladas las tareas que todavía no empezaron, para que no llamen al
+     * inventario, e interrumpe las que están en curso.
+     */
+    private static void cancelOutstanding(Batch batch) {
+        for (int i = 0; i < batch.futures.size(); i++) {
+            batch.states.compareAndSet(i, PENDING, CANCELLED);
+            batch.futures.get(i).cancel(true);
+        }
+    }
+
+    /**
+     * Espera a que terminen todas las tareas que llegaron a empezar, aunque el hilo se interrumpa:
+     * sin su resultado no se sabría qué stock devolver.
+     *
+     * @return {@code true} si el hilo se interrumpió mientras esperaba
+     */
+    private static boolean awaitStarted(Batch batch) {
+
+        boolean interrupted = false;
+
+        for (int i = 0; i < batch.futures.size(); i++) {
+            if (batch.states.get(i) == CANCELLED) {
+                continue;
+            }
+            while (true) {
+                try {
+                    batch.finished[i].await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        return interrupted;
+    }
+
+    /**
+     * Devuelve el stock de los productos que sí se descontaron antes del error. Los que quedaron
+     * con resultado desconocido se informan en el error para revisarlos.
+     */
+    private void releaseReserved(Batch batch, RuntimeException failure) {
+
+        List<ProductItemDto> reserved = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+
+        for (int i = 0; i < batch.futures.size(); i++) {
+            if (batch.results[i] != null) {
+                reserved.add(batch.items.get(i));
+            } else if (batch.states.get(i) == UNKNOWN) {
+                unknown.add(batch.items.get(i).getProductCode());
+            }
+        }
+
+        if (!unknown.isEmpty()) {
+            failure.addSuppressed(new RuntimeException(
+                    "No se pudo confirmar si se descontó el stock de los productos " + unknown));
+        }
+
+        if (reserved.isEmpty()) {
+            return;
+        }
+
+        try {
+            inventoryClientRest.incrementStockBatch(reserved);
+        } catch (FeignException e) {
+            failure.addSuppressed(new RuntimeException("Error al devolver el stock reservado: " + e.contentUTF8()));
+        }
+    }
+
+    private static RuntimeException toRuntimeException(Throwable cause) {
+        if (cause instanceof FeignException e) {
+            return new RuntimeException("Error al actualizar inventario: " + e.contentUTF8());
+        }
+        if (cause instanceof RuntimeException e) {
+            return e;
+        }
+        return new RuntimeException(cause);
+    }
+
+    /**
+     * Estado de los descuentos de una orden. Cada tarea escribe solo su posición y cuenta
+     * {@code finished} al terminar, lo que hace visible su resultado al hilo que espera.
+     */
+    private static final class Batch {
+
+        private final List<ProductItemDto> items;
+        private final InventoryItemDto[] results;
+        private final AtomicIntegerArray states;
+        private final CountDownLatch[] finished;
+        private final List<Future<Void>> futures = new ArrayList<>();
+
+        private Batch(List<ProductItemDto> items) {
+            this.items = items;
+            this.results = new InventoryItemDto[items.size()];
+            this.states = new AtomicIntegerArray(items.size());
+            this.finished = new CountDownLatch[items.size()];
+            for (int i = 0; i < finished.length; i++) {
+                finished[i] = new CountDownLatch(1);
+            }
+        }
+    }
+}
@@ -5,6 +5,10 @@ import lombok.RequiredArgsConstructor;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.clientrest.InventoryClientRest;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.clientrest.OrderClientRest;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.ProductOrderEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.CheckoutRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.CheckoutResponseDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.InventoryItemDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.OrderHeaderDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.OrderRequestDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductItemDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductListItemDto;
@@ -16,7 +20,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Servicio que implementa las operaciones del caso de uso para la gestión
@@ -31,6 +37,7 @@ public class ProductOrderServiceImpl implements IProductOrderUseCase {
     private final IProductOrderRepository productOrderRepo;
     private final InventoryClientRest inventoryClientRest;
     private final OrderClientRest orderClientRest;
+    private final InventoryFanOut inventoryFanOut;
 
     /**
      * Obtiene todos los registros de productos-orden.
@@ -64,12 +71,24 @@ public class ProductOrderServiceImpl implements IProductOrderUseCase {
     /**
      * Registra una lista de productos asociados a una orden.
      * También actualiza el stock en el microservicio de inventario.
+     * Los precios y el descuento de stock de toda la orden se resuelven
+     * con una petición cada uno, sin importar la cantidad de líneas.
+     * <p>
+     * El método no es transaccional: la validación de la orden, la consulta de precios y la
+     * reserva de stock se hacen fuera de cualquier transacción local, y solo la inserción de las
+     * líneas abre una transacción corta, de modo que no se retiene una conexión del pool mientras
+     * se espera a otros microservicios. Si la inserción o la actualización del total fallan,
+     * se compensa devolviendo el stock reservado (y eliminando las líneas ya insertadas).
+     * </p>
+     * <p>
+     * Con {@code msvc.fan-out.enabled=true}, el precio y el descuento de stock se resuelven
+     * con una llamada por producto ejecutada en paralelo por {@link InventoryFanOut}.
+     * </p>
      *
      * @param requestDto datos de la orden y su lista de productos
      * @return lista de entidades guardadas
      * @throws RuntimeException si la orden no existe o falla un servicio externo
      */
-    @Transactional
     @Override
     public List<ProductOrderEntity> save(ProductListItemDto requestDto) {
 
@@ -79,66 +98,223 @@ public class ProductOrderServiceImpl implements IProductOrderUseCase {
             throw new RuntimeException("No existe ninguna factura por ese id, falló el Rest");
         }
 
-        List<ProductOrderEntity> savedItems = new ArrayList<>();
+        List<String> productCodes = requestDto.getItems().stream()
+                .map(ProductItemDto::getProductCode)
+                .distinct()
+                .toList();
 
-        BigDecimal sumTotal = BigDecimal.ZERO;
+        Map<String, BigDecimal> unitPrices;
+        if (inventoryFanOut.isEnabled()) {
+            unitPrices = toUnitPrices(inventoryFanOut.decrementEach(requestDto.getItems()));
+            requireUnitPrices(requestDto.getItems(), unitPrices);
+        } else {
+            try {
+                unitPrices = inventoryClientRest.getUnitPricesByProductCodes(productCodes);
+            } catch (FeignException e) {
+                throw new RuntimeException("Error al consultar precios en inventario: " + e.contentUTF8());
+            }
+        }
 
-        for (ProductItemDto dto : requestDto.getItems()) {
+        List<ProductOrderEntity> items = new ArrayList<>();
 
+        BigDecimal sumTotal = BigDecimal.ZERO;
 
-            BigDecimal unitPrice = inventoryClientRest.getUnitPriceByProductCode(dto.getProductCode());
+        for (ProductItemDto dto : requestDto.getItems()) {
 
             ProductOrderEntity productOrder = new ProductOrderEntity();
             productOrder.setOrderId(requestDto.getOrderId());
             productOrder.setProductCode(dto.getProductCode());
             productOrder.setQuantity(dto.getQuantity());
-            productOrder.setUnitPrice(unitPrice);
+            productOrder.setUnitPrice(unitPrices.get(dto.getProductCode()));
             productOrder.setSubtotal(calculateTotal(productOrder));
 
+            items.add(productOrder);
+            sumTotal = sumTotal.add(productOrder.getSubtotal());
+        }
 
-            productOrderRepo.save(productOrder);
-            savedItems.add(productOrder);
-
-
+        if (!inventoryFanOut.isEnabled()) {
             try {
-                inventoryClientRest.decrementStock(productOrder.getProductCode(), productOrder.getQuantity());
+                inventoryClientRest.decrementStockBatch(requestDto.getItems());
             } catch (FeignException e) {
                 throw new RuntimeException("Error al actualizar inventario: " + e.contentUTF8());
             }
-
         }
 
-        for (ProductOrderEntity item : savedItems) {
-            sumTotal = sumTotal.add(item.getSubtotal());
+        List<ProductOrderEntity> savedItems;
+        try {
+            savedItems = productOrderRepo.saveAll(items);
+        } catch (RuntimeException e) {
+            releaseStock(requestDto.getItems());
+            throw new RuntimeException("Error al registrar los productos de la orden: " + e.getMessage());
         }
 
         try {
             orderClientRest.updateTotalPrice(requestDto.getOrderId(),  sumTotal);
         } catch (FeignException e) {
+            try {
+                productOrderRepo.deleteAll(savedItems);
+            } finally {
+                releaseStock(requestDto.getItems());
+            }
             throw new RuntimeException("Error al actualizar total de la orden: " + e.contentUTF8());
         }
 
         return savedItems;
     }
 
+    /**
+     * Registra una orden completa (encabezado y productos) con el mínimo de llamadas remotas.
+     * <p>
+     * Son dos saltos en total: un descuento de stock en lote en msvc-inventory, cuya respuesta
+     * trae el precio unitario de cada producto, y la creación de la orden en msvc-orders con el
+     * total ya calculado. Las líneas se guardan después en la base local. A diferencia de
+     * {@link #save}, no hay que consultar la orden ni actualizar su total después.
+     * </p>
+     * <p>
+     * Si la orden no se puede crear se devuelve el stock; si las líneas no se pueden guardar,
+     * además se elimina la orden creada. El stock se devuelve aunque falle esa eliminación,
+     * y el error de la eliminación se agrega al mensaje para poder limpiar la orden a mano.
+     * </p>
+     *
+     * @param requestDto encabezado de la orden y sus productos
+     * @return la orden creada con sus líneas y su total
+     * @throws RuntimeException si los datos no son válidos o falla un servicio externo
+     */
+    @Override
+    public CheckoutResponseDto checkout(CheckoutRequestDto requestDto) {
 
+        if (requestDto.getItems() == null || requestDto.getItems().isEmpty()) {
+            throw new RuntimeException("La orden debe tener al menos un producto");
+        }
+
+        for (ProductItemDto item : requestDto.getItems()) {
+            if (item.getProductCode() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+                throw new RuntimeException("Cada producto debe indicar su código y una cantidad mayor a cero");
+            }
+        }
+
+        Map<String, BigDecimal> unitPrices;
+        try {
+            unitPrices = toUnitPrices(inventoryClientRest.decrementStockBatch(requestDto.getItems()));
+        } catch (FeignException e) {
+            throw new RuntimeException("Error al reservar el stock en inventario: " + e.contentUTF8());
+        }
+        requireUnitPrices(requestDto.getItems(), unitPrices);
+
+        List<ProductOrderEntity> items = new ArrayList<>();
+        BigDecimal sumTotal = BigDecimal.ZERO;
+
+        for (ProductItemDto dto : requestDto.getItems()) {
+
+            ProductOrderEntity productOrder = new ProductOrderEntity();
+            productOrder.setProductCode(dto.getProductCode());
+            productOrder.setQuantity(dto.getQuantity());
+            productOrder.setUnitPrice(unitPrices.get(dto.getProductCode()));
+            productOrder.setSubtotal(calculateTotal(productOrder));
+
+            items.add(productOrder);
+            sumTotal = sumTotal.add(productOrder.getSubtotal());
+        }
+
+        OrderHeaderDto order;
+        try {
+            order = orderClientRest.save(new OrderHeaderDto(null, null, requestDto.getDate(),
+                    requestDto.getStore(), requestDto.getPaymentMethod(), sumTotal));
+        } catch (FeignException e) {
+            releaseStock(requestDto.getItems());
+            throw new RuntimeException("Error al crear la orden: " + e.contentUTF8());
+        }
+
+        items.forEach(item -> item.setOrderId(order.getId()));
+
+        List<ProductOrderEntity> savedItems;
+        try {
+            savedItems = productOrderRepo.saveAll(items);
+        } catch (RuntimeException e) {
+            String cleanupError = "";
+            try {
+                orderClientRest.deleteById(order.getId());
+            } catch (RuntimeException deleteError) {
+                cleanupError = "; además no se pudo eliminar la orden " + order.getId() + ": "
+                        + (deleteError instanceof FeignException feign ? feign.contentUTF8() : deleteError.getMessage());
+            } finally {
+                releaseStock(requestDto.getItems());
+            }
+            throw new RuntimeException("Error al registrar los productos de la orden: " + e.getMessage() + cleanupError);
+        }
+
+        return new CheckoutResponseDto(order.getId(), order.getUserId(), order.getDate(), order.getStore(),
+                order.getPaymentMethod(), order.getTotalPrice(), savedItems);
+    }
+
+    /**
+     * Indexa por código de producto los precios unitarios devueltos por el inventario.
+     * Los productos sin precio unitario quedan fuera del mapa.
+     *
+     * @param inventory inventarios actualizados
+     * @return mapa código de producto → precio unitario
+     */
+    private Map<String, BigDecimal> toUnitPrices(List<InventoryItemDto> inventory) {
+        return inventory.stream()
+                .filter(item -> item.getUnitPrice() != null)
+                .collect(Collectors.toMap(InventoryItemDto::getProductCode, InventoryItemDto::getUnitPrice,
+                        (first, second) -> second));
+    }
+
+    /**
+     * Verifica que todos los productos de la orden tengan precio unitario. Si falta alguno,
+     * devuelve el stock ya descontado antes de rechazar la orden.
+     *
+     * @param items productos de la orden
+     * @param unitPrices precios unitarios por código de producto
+     * @throws RuntimeException si algún producto no tiene precio unitario
+     */
+    private void requireUnitPrices(List<ProductItemDto> items, Map<String, BigDecimal> unitPrices) {
+        for (ProductItemDto item : items) {
+            if (!unitPrices.containsKey(item.getProductCode())) {
+                String cleanupError = "";
+                try {
+                    releaseStock(items);
+                } catch (RuntimeException releaseError) {
+                    cleanupError = "; además " + releaseError.getMessage();
+                }
+                throw new RuntimeException("El producto " + item.getProductCode()
+                        + " no tiene precio unitario en inventario" + cleanupError);
+            }
+        }
+    }
 
     /**
-     * Elimina un registro basado en el ID de la orden.
+     * Compensación de la reserva de stock: devuelve al inventario las cantidades
+     * descontadas para una orden que finalmente no se pudo registrar.
+     *
+     * @param items productos con la cantidad a reintegrar
+     * @throws RuntimeException si el inventario no acepta la devolución
+     */
+    private void releaseStock(List<ProductItemDto> items) {
+        try {
+            inventoryClientRest.incrementStockBatch(items);
+        } catch (FeignException e) {
+            throw new RuntimeException("Error al devolver el stock reservado: " + e.contentUTF8());
+        }
+    }
+
+
+
+    /**
+     * Elimina todas las líneas de una orden.
+     * <p>
+     * Es idempotente: una orden sin líneas, o cuyas líneas ya se eliminaron, también responde
+     * {@code true}. msvc-orders entrega la baja desde su outbox "al menos una vez" y trataría
+     * un error como definitivo, dejando las líneas huérfanas.
+     * </p>
      *
      * @param orderId identificador de la orden
-     * @return true si la eliminación fue exitosa
-     * @throws RuntimeException si no existe la orden
+     * @return true una vez que la orden no tiene líneas
      */
     @Transactional
     @Override
     public Boolean deleteByOrderId(Integer orderId) {
-
-        Optional<ProductOrderEntity> db = productOrderRepo.getByOrderId(orderId);
-        if (db.isEmpty()) {
-            throw new RuntimeException("No existe ninguna factura por ese id");
-        }
-
         productOrderRepo.deleteByOrderId(orderId);
         return true;
     }
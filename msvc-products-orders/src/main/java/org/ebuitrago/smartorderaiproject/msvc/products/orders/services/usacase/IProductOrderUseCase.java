@@ -1,6 +1,8 @@
 package org.ebuitrago.smartorderaiproject.msvc.products.orders.services.usacase;
 
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.ProductOrderEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.CheckoutRequestDto;
+import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.CheckoutResponseDto;
 import org.ebuitrago.smartorderaiproject.msvc.products.orders.domain.dto.ProductListItemDto;
 
 
@@ -43,10 +45,21 @@ public interface IProductOrderUseCase {
 
 
     /**
-     * Elimina los datos asociados a una orden.
+     * Registra una orden completa (encabezado y productos) en una sola operación:
+     * reserva el stock y obtiene los precios, crea la orden con su total y guarda las líneas.
+     *
+     * @param requestDto encabezado de la orden y sus productos
+     * @return la orden creada con sus líneas y su total
+     * @throws RuntimeException si los datos no son válidos o falla un servicio externo
+     */
+    CheckoutResponseDto checkout(CheckoutRequestDto requestDto);
+
+    /**
+     * Elimina los datos asociados a una orden. Es idempotente: si la orden no tiene líneas
+     * también termina correctamente.
      *
      * @param orderId identificador de la orden
-     * @return true si se eliminó correctamente
+     * @return true una vez que la orden no tiene líneas
      */
     Boolean deleteByOrderId(Integer orderId);
 }
@@ -0,0 +1,189 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.orders;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark de inserción de 10.000 líneas de productos-orden en PostgreSQL.
+ * <p>
+ * Compara el patrón de sentencias que genera Hibernate con {@code GenerationType.IDENTITY}
+ * (una inserción y un viaje a la base de datos por fila) contra el de una secuencia con
+ * optimizador pooled y lotes JDBC de 50 filas con {@code reWriteBatchedInserts=true}.
+ * </p>
+ * <p>
+ * Necesita una base de datos real, por lo que solo se ejecuta si se indica la URL:
+ * {@code mvn test -pl msvc-products-orders -Dtest=ProductOrderInsertBenchmarkTests
+ * -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5435/msvc_products_orders
+ * -Dbenchmark.jdbc.user=postgres -Dbenchmark.jdbc.password=12345}
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "benchmark.jdbc.url", matches = ".+")
+class ProductOrderInsertBenchmarkTests {
+
+    private static final int LINES = 10_000;
+
+    private static final int WARMUP_LINES = 1_000;
+
+    private static final int BATCH_SIZE = 50;
+
+    private static final String IDENTITY_TABLE = "bench_products_orders_identity";
+
+    private static final String SEQUENCE_TABLE = "bench_products_orders_sequence";
+
+    private static final String SEQUENCE = "bench_products_orders_seq";
+
+    @Test
+    void insertThroughputIdentityVsPooledSequence() throws SQLException {
+
+        String url = System.getProperty("benchmark.jdbc.url");
+        String user = System.getProperty("benchmark.jdbc.user", "postgres");
+        String password = System.getProperty("benchmark.jdbc.password", "");
+        String batchedUrl = url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true";
+
+        try (Connection con = DriverManager.getConnection(url, user, password)) {
+            createTables(con);
+        }
+
+        try {
+            long identityNanos;
+            try (Connection con = DriverManager.getConnection(url, user, password)) {
+                insertWithIdentity(con, WARMUP_LINES);
+                truncate(con, IDENTITY_TABLE);
+                identityNanos = insertWithIdentity(con, LINES);
+                assertEquals(LINES, count(con, IDENTITY_TABLE));
+            }
+
+            long sequenceNanos;
+            try (Connection con = DriverManager.getConnection(batchedUrl, user, password)) {
+                insertWithPooledSequence(con, WARMUP_LINES);
+                truncate(con, SEQUENCE_TABLE);
+                sequenceNanos = insertWithPooledSequence(con, LINES);
+                assertEquals(LINES, count(con, SEQUENCE_TABLE));
+            }
+
+            System.out.printf("IDENTITY, fila por fila:          %,8d ms  %,10.0f líneas/s%n",
+                    identityNanos / 1_000_000, LINES / (identityNanos / 1e9));
+            System.out.printf("Secuencia pooled + lotes de %d:  %,8d ms  %,10.0f líneas/s%n",
+                    BATCH_SIZE, sequenceNanos / 1_000_000, LINES / (sequenceNanos / 1e9));
+        } finally {
+            try (Connection con = DriverManager.getConnection(url, user, password);
+                 Statement st = con.createStatement()) {
+                st.execute("DROP TABLE IF EXISTS " + IDENTITY_TABLE);
+                st.execute("DROP TABLE IF EXISTS " + SEQUENCE_TABLE);
+                st.execute("DROP SEQUENCE IF EXISTS " + SEQUENCE);
+            }
+        }
+    }
+
+    /**
+     * Antes: cada fila es un INSERT ... RETURNING id independiente, como hace Hibernate
+     * cuando el id lo genera una columna IDENTITY.
+     */
+    private long insertWithIdentity(Connection con, int lines) throws SQLException {
+
+        con.setAutoCommit(false);
+        long start = System.nanoTime();
+
+        try (PreparedStatement ps = con.prepareStatement("INSERT INTO " + IDENTITY_TABLE +
+                " (product_code, order_id, quantity, unit_price, subtotal) VALUES (?, ?, ?, ?, ?) RETURNING id")) {
+            for (int i = 0; i < lines; i++) {
+                bindLine(ps, 1, i);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                }
+            }
+        }
+
+        con.commit();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Después: un nextval por cada bloque de 50 ids y las filas enviadas en lotes JDBC,
+     * que el driver reescribe como INSERT de varias filas.
+     */
+    private long insertWithPooledSequence(Connection con, int lines) throws SQLException {
+
+        con.setAutoCommit(false);
+        long start = System.nanoTime();
+
+        try (PreparedStatement nextVal = con.prepareStatement("SELECT nextval('" + SEQUENCE + "')");
+             PreparedStatement ps = con.prepareStatement("INSERT INTO " + SEQUENCE_TABLE +
+                     " (id, product_code, order_id, quantity, unit_price, subtotal) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+            long nextId = 0;
+            long hiId = -1;
+
+            for (int i = 0; i < lines; i++) {
+                if (nextId > hiId) {
+                    try (ResultSet rs = nextVal.executeQuery()) {
+                        rs.next();
+                        hiId = rs.getLong(1);
+                        nextId = hiId - BATCH_SIZE + 1;
+                    }
+                }
+                ps.setLong(1, nextId++);
+                bindLine(ps, 2, i);
+                ps.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+
+        con.commit();
+        return System.nanoTime() - start;
+    }
+
+    private static void bindLine(PreparedStatement ps, int firstIndex, int line) throws SQLException {
+        BigDecimal unitPrice = BigDecimal.valueOf(1000 + line % 100);
+        int quantity = 1 + line % 5;
+        ps.setString(firstIndex, "P-" + (line % 500));
+        ps.setInt(firstIndex + 1, line / 50);
+        ps.setInt(firstIndex + 2, quantity);
+        ps.setBigDecimal(firstIndex + 3, unitPrice);
+        ps.setBigDecimal(firstIndex + 4, unitPrice.multiply(BigDecimal.valueOf(quantity)));
+    }
+
+    private static void createTables(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + IDENTITY_TABLE);
+            st.execute("DROP TABLE IF EXISTS " + SEQUENCE_TABLE);
+            st.execute("DROP SEQUENCE IF EXISTS " + SEQUENCE);
+            st.execute("CREATE TABLE " + IDENTITY_TABLE + " (id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "product_code varchar(255) NOT NULL, order_id integer NOT NULL, quantity integer NOT NULL, " +
+                    "unit_price numeric(38,2) NOT NULL, subtotal numeric(38,2) NOT NULL)");
+            st.execute("CREATE SEQUENCE " + SEQUENCE + " START WITH " + BATCH_SIZE + " INCREMENT BY " + BATCH_SIZE);
+            st.execute("CREATE TABLE " + SEQUENCE_TABLE + " (id integer PRIMARY KEY, " +
+                    "product_code varchar(255) NOT NULL, order_id integer NOT NULL, quantity integer NOT NULL, " +
+                    "unit_price numeric(38,2) NOT NULL, subtotal numeric(38,2) NOT NULL)");
+        }
+    }
+
+    private static void truncate(Connection con, String table) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("TRUNCATE " + table);
+        }
+        con.commit();
+    }
+
+    private static int count(Connection con, String table) throws SQLException {
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT count(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
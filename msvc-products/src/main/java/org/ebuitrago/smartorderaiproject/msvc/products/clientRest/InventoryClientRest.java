@@ -2,9 +2,13 @@ package org.ebuitrago.smartorderaiproject.msvc.products.clientRest;
 
 import org.ebuitrago.smartorderaiproject.msvc.products.config.FeignConfig;
 import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.InventoryRequest;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.ProductSyncRequest;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.ProductSyncResponse;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 
 /**
  * Cliente Feign para comunicarse con el microservicio de inventario.
@@ -43,4 +47,13 @@ public interface InventoryClientRest {
      */
     @GetMapping("/stock-by-code/{productCode}")
     Integer getStockByProductCode(@PathVariable String productCode);
+
+    /**
+     * Envía en una sola petición un lote de cambios del catálogo para reflejarlos en el inventario.
+     *
+     * @param events cambios del catálogo en el orden en que ocurrieron.
+     * @return cuántos cambios se aplicaron desde el inicio del lote y, si el siguiente falló, el motivo.
+     */
+    @PostMapping("/sync-products")
+    ProductSyncResponse syncProducts(@RequestBody List<ProductSyncRequest> events);
 }
@@ -1,19 +1,28 @@
 package org.ebuitrago.smartorderaiproject.msvc.products.config;
 
 
+import feign.Client;
 import feign.RequestInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.OAuth2AuthorizeRequest;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 
 @Configuration
+@EnableConfigurationProperties(HttpClientPoolProperties.class)
 public class FeignConfig {
 
 
+    private static final String SERVICE_CLIENT_REGISTRATION = "msvc-products";
+
     @Bean
-    RequestInterceptor requestInterceptor() {
+    RequestInterceptor requestInterceptor(OAuth2AuthorizedClientManager authorizedClientManager) {
 
         return requestTemplate -> {
 
@@ -27,8 +36,24 @@ public class FeignConfig {
 
                 requestTemplate.header("Authorization", "Bearer " + token);
 
+            } else {
+
+                OAuth2AuthorizedClient client = authorizedClientManager.authorize(
+                        OAuth2AuthorizeRequest.withClientRegistrationId(SERVICE_CLIENT_REGISTRATION)
+                                .principal(SERVICE_CLIENT_REGISTRATION)
+                                .build());
+
+                if (client != null) {
+                    requestTemplate.header("Authorization",
+                            "Bearer " + client.getAccessToken().getTokenValue());
+                }
             }
         };
     }
 
+    @Bean
+    Client feignClient(HttpClientPoolProperties properties, MeterRegistry meterRegistry) {
+        return new PooledFeignClient(properties, meterRegistry);
+    }
+
 }
@@ -0,0 +1,123 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.config;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente HTTP de Feign basado en Apache HttpClient 5 con un pool de conexiones
+ * independiente por microservicio destino.
+ * <p>
+ * El pool de cada destino se crea la primera vez que se usa, con los límites, tiempos
+ * de espera y desalojo de conexiones ociosas definidos en {@link HttpClientPoolProperties}.
+ * La ocupación de cada pool se publica como métricas {@code feign.http.pool.*}
+ * con la etiqueta {@code client}.
+ * </p>
+ */
+public class PooledFeignClient implements Client, Closeable {
+
+    private final HttpClientPoolProperties properties;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, TargetPool> pools = new ConcurrentHashMap<>();
+
+    public PooledFeignClient(HttpClientPoolProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Ejecuta la petición con el pool del cliente Feign que la originó,
+     * aplicando los tiempos de espera configurados para ese destino.
+     */
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+
+        String clientName = request.requestTemplate() != null && request.requestTemplate().feignTarget() != null
+                ? request.requestTemplate().feignTarget().name()
+                : "default";
+
+        TargetPool pool = pools.computeIfAbsent(clientName, this::createPool);
+
+        return pool.client().execute(request, pool.options(options.isFollowRedirects()));
+    }
+
+    /**
+     * Construye el pool de conexiones de un destino y registra sus métricas.
+     *
+     * @param clientName nombre del cliente Feign
+     * @return pool listo para usarse
+     */
+    private TargetPool createPool(String clientName) {
+
+        HttpClientPoolProperties.Pool config = properties.forClient(clientName);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(config.getMaxConnections())
+                .setMaxConnPerRoute(config.getMaxConnections())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(config.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(config.getReadTimeout()))
+                        .setTimeToLive(TimeValue.of(config.getTimeToLive()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(config.getIdleTimeout()))
+                .disableCookieManagement()
+                .build();
+
+        Gauge.builder("feign.http.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .description("Conexiones en uso").tag("client", clientName).register(meterRegistry);
+        Gauge.builder("feign.http.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .description("Conexiones ociosas en el pool").tag("client", clientName).register(meterRegistry);
+        Gauge.builder("feign.http.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .description("Peticiones esperando una conexión").tag("client", clientName).register(meterRegistry);
+        Gauge.builder("feign.http.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .description("Tamaño máximo del pool").tag("client", clientName).register(meterRegistry);
+
+        return new TargetPool(httpClient, new ApacheHttp5Client(httpClient), config);
+    }
+
+    /**
+     * Cierra todos los pools al detener la aplicación.
+     */
+    @Override
+    public void close() throws IOException {
+        for (TargetPool pool : pools.values()) {
+            pool.httpClient().close();
+        }
+    }
+
+    /**
+     * Pool de un destino: el cliente HTTP subyacente, su adaptador Feign y su configuración.
+     */
+    private record TargetPool(CloseableHttpClient httpClient, Client client, HttpClientPoolProperties.Pool config) {
+
+        Request.Options options(boolean followRedirects) {
+            return new Request.Options(
+                    config.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                    config.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                    followRedirects);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.domain;
+
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Entidad que representa la tabla "product_outbox": cambios del catálogo pendientes
+ * de reflejarse en msvc-inventory (patrón transactional outbox).
+ * Se escribe en la misma transacción que el producto y la borra el relay al entregarla.
+ */
+@Data
+@Entity
+@Table(name = "product_outbox",
+       indexes = @Index(name = "idx_product_outbox_next_attempt_at", columnList = "next_attempt_at"))
+public class ProductOutboxEntity {
+
+    public static final String PRODUCT_CREATED = "PRODUCT_CREATED";
+
+    public static final String PRODUCT_UPDATED = "PRODUCT_UPDATED";
+
+    public static final String PRODUCT_DELETED = "PRODUCT_DELETED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_outbox_seq")
+    @SequenceGenerator(name = "product_outbox_seq", sequenceName = "product_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "event_type", nullable = false)
+    private String eventType;
+
+    @Column(name = "product_code", nullable = false)
+    private String productCode;
+
+    @Column(name = "previous_product_code")
+    private String previousProductCode;
+
+    @Column(name = "unit_price")
+    private BigDecimal unitPrice;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Integer attempts;
+
+    /**
+     * Próximo intento de entrega; {@code null} si el evento se descartó tras agotar los intentos.
+     */
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    public static ProductOutboxEntity of(String eventType, String productCode,
+                                         String previousProductCode, BigDecimal unitPrice) {
+        ProductOutboxEntity event = new ProductOutboxEntity();
+        Instant now = Instant.now();
+        event.setEventType(eventType);
+        event.setProductCode(productCode);
+        event.setPreviousProductCode(previousProductCode);
+        event.setUnitPrice(unitPrice);
+        event.setCreatedAt(now);
+        event.setAttempts(0);
+        event.setNextAttemptAt(now);
+        return event;
+    }
+}
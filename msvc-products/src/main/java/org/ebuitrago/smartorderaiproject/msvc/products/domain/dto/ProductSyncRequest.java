@@ -0,0 +1,22 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.domain.dto;
+
+import lombok.*;
+
+import java.math.BigDecimal;
+
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSyncRequest {
+
+    private Long eventId;
+
+    private String eventType;
+
+    private String productCode;
+
+    private String previousProductCode;
+
+    private BigDecimal unitPrice;
+
+}
@@ -0,0 +1,18 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.domain.dto;
+
+import lombok.*;
+
+/**
+ * Resultado de un lote de cambios enviado a msvc-inventory: cuántos cambios se aplicaron
+ * desde el inicio del lote y, si el siguiente falló, el motivo.
+ */
+@Getter@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSyncResponse {
+
+    private Integer applied;
+
+    private String error;
+
+}
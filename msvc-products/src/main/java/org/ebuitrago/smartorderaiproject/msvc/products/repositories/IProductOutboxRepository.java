@@ -0,0 +1,33 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.repositories;
+
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductOutboxEntity;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface IProductOutboxRepository {
+
+    ProductOutboxEntity save(ProductOutboxEntity event);
+
+    /**
+     * Intenta tomar, hasta el fin de la transacción, el turno exclusivo para tomar eventos.
+     */
+    boolean tryLockRelay();
+
+    List<ProductOutboxEntity> lockNextBatch(int limit);
+
+    /**
+     * Aparta los eventos hasta {@code until} para entregarlos fuera de la transacción que los bloqueó.
+     */
+    void claim(List<ProductOutboxEntity> events, Instant until);
+
+    /**
+     * Guarda los intentos, el próximo intento y el último error de un evento fallido.
+     */
+    void registerFailure(ProductOutboxEntity event);
+
+    Optional<Instant> getOldestPendingCreatedAt();
+
+    void deleteAll(List<ProductOutboxEntity> events);
+}
@@ -0,0 +1,82 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.repositories.JpaRepository;
+
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+
+/**
+ * Repositorio JPA para la tabla outbox de {@link ProductOutboxEntity}.
+ */
+public interface IProductOutboxJpaRepository extends JpaRepository<ProductOutboxEntity, Long> {
+
+    /**
+     * Intenta tomar el bloqueo consultivo del relay hasta el fin de la transacción.
+     * Solo una instancia a la vez puede tomar eventos, así el orden de entrega es global.
+     *
+     * @return {@code true} si se obtuvo el bloqueo; {@code false} si otra instancia lo tiene.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('product_outbox_relay'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Bloquea el siguiente lote de eventos listos, sin pasar por encima de un evento anterior
+     * que esté apartado o esperando su reintento: los cambios de un producto deben llegar en orden.
+     * Los eventos descartados ({@code next_attempt_at} nulo) no detienen la cola.
+     *
+     * @param now momento actual.
+     * @param limit cantidad máxima de eventos a tomar.
+     * @return los eventos bloqueados, del más antiguo al más reciente.
+     */
+    @Query(value = "SELECT * FROM product_outbox WHERE next_attempt_at <= :now " +
+            "AND id < COALESCE((SELECT MIN(b.id) FROM product_outbox b WHERE b.next_attempt_at > :now), " +
+            "9223372036854775807) ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<ProductOutboxEntity> lockNextBatch(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Aparta eventos hasta {@code until}: mientras tanto no se vuelven a tomar ni se toman los posteriores.
+     *
+     * @param ids identificadores de los eventos.
+     * @param until momento en que el evento vuelve a estar disponible si no se registró su resultado.
+     * @return número de filas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE ProductOutboxEntity e SET e.nextAttemptAt = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("until") Instant until);
+
+    /**
+     * Registra un intento fallido.
+     *
+     * @param id identificador del evento.
+     * @param attempts intentos fallidos acumulados.
+     * @param nextAttemptAt próximo intento, o {@code null} si el evento se descarta.
+     * @param lastError mensaje del último error.
+     * @return número de filas actualizadas.
+     */
+    @Modifying
+    @Query("UPDATE ProductOutboxEntity e SET e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :lastError WHERE e.id = :id")
+    int registerFailure(@Param("id") Long id, @Param("attempts") Integer attempts,
+                        @Param("nextAttemptAt") Instant nextAttemptAt, @Param("lastError") String lastError);
+
+    /**
+     * Elimina los eventos entregados.
+     *
+     * @param ids identificadores de los eventos.
+     * @return número de filas eliminadas.
+     */
+    @Modifying
+    @Query("DELETE FROM ProductOutboxEntity e WHERE e.id IN :ids")
+    int deleteByIds(@Param("ids") List<Long> ids);
+
+    /**
+     * Fecha de creación del evento pendiente más antiguo, o {@code null} si no hay pendientes.
+     */
+    @Query("SELECT MIN(e.createdAt) FROM ProductOutboxEntity e WHERE e.nextAttemptAt IS NOT NULL")
+    Instant findOldestPendingCreatedAt();
+}
@@ -0,0 +1,53 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductOutboxEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.repositories.JpaRepository.IProductOutboxJpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+@Repository
+public class ProductOutboxRepositoryImpl implements IProductOutboxRepository {
+
+    private final IProductOutboxJpaRepository iProductOutboxJpaRepository;
+
+    @Override
+    public ProductOutboxEntity save(ProductOutboxEntity event) {
+        return iProductOutboxJpaRepository.save(event);
+    }
+
+    @Override
+    public boolean tryLockRelay() {
+        return iProductOutboxJpaRepository.tryLockRelay();
+    }
+
+    @Override
+    public List<ProductOutboxEntity> lockNextBatch(int limit) {
+        return iProductOutboxJpaRepository.lockNextBatch(Instant.now(), limit);
+    }
+
+    @Override
+    public void claim(List<ProductOutboxEntity> events, Instant until) {
+        iProductOutboxJpaRepository.claim(events.stream().map(ProductOutboxEntity::getId).toList(), until);
+    }
+
+    @Override
+    public void registerFailure(ProductOutboxEntity event) {
+        iProductOutboxJpaRepository.registerFailure(event.getId(), event.getAttempts(),
+                event.getNextAttemptAt(), event.getLastError());
+    }
+
+    @Override
+    public Optional<Instant> getOldestPendingCreatedAt() {
+        return Optional.ofNullable(iProductOutboxJpaRepository.findOldestPendingCreatedAt());
+    }
+
+    @Override
+    public void deleteAll(List<ProductOutboxEntity> events) {
+        iProductOutboxJpaRepository.deleteByIds(events.stream().map(ProductOutboxEntity::getId).toList());
+    }
+}
@@ -0,0 +1,188 @@
+package org.ebuitrago.smartorderaiproject.msvc.products.services;
+
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.ebuitrago.smartorderaiproject.msvc.products.clientRest.InventoryClientRest;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductOutboxEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.ProductSyncRequest;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.ProductSyncResponse;
+import org.ebuitrago.smartorderaiproject.msvc.products.repositories.IProductOutboxRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Proceso en segundo plano que entrega a msvc-inventory los cambios del catálogo
+ * guardados en el outbox.
+ * <p>
+ * Cada lote se envía en una sola petición, de modo que una carga masiva del catálogo no genera
+ * una llamada remota por producto. El lote se toma y se aparta por {@code msvc.outbox.lease} en una
+ * transacción corta; la llamada a msvc-inventory se hace después, sin bloqueos ni conexión retenida,
+ * y el resultado se registra en otra transacción corta.
+ * </p>
+ * <p>
+ * Los cambios se entregan en orden aunque haya varias instancias: solo la que obtiene el bloqueo
+ * consultivo del relay toma eventos, y nunca se toma un evento mientras uno anterior esté apartado
+ * o esperando su reintento. La espera de los reintentos queda en la tabla, así vale para todas las
+ * instancias. Si la instancia cae a mitad de un lote, se vuelve a entregar al vencer el plazo:
+ * msvc-inventory descarta los eventos ya aplicados.
+ * </p>
+ * <p>
+ * msvc-inventory responde cuántos eventos del lote aplicó y, si uno falló, el motivo. Los aplicados
+ * se borran; el que falló se reintenta con espera exponencial y, tras {@code msvc.outbox.max-attempts},
+ * queda descartado en la tabla para revisión manual sin arrastrar a los demás, que siguen su curso.
+ * Si falla la llamada completa (red, inventario caído) la cola se pausa con espera exponencial, pero
+ * no se descarta ningún evento: no se sabe si alguno es inválido.
+ * </p>
+ * <p>
+ * Publica la métrica {@code products.outbox.lag}: segundos desde que se creó el evento
+ * pendiente más antiguo (0 si no hay pendientes).
+ * </p>
+ */
+@Component
+public class ProductOutboxRelay {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+
+    private final IProductOutboxRepository iProductOutboxRepository;
+
+    private final InventoryClientRest inventoryClientRest;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    @Value("${msvc.outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${msvc.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${msvc.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${msvc.outbox.lease:2m}")
+    private Duration lease;
+
+    public ProductOutboxRelay(IProductOutboxRepository iProductOutboxRepository,
+                              InventoryClientRest inventoryClientRest,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.iProductOutboxRepository = iProductOutboxRepository;
+        this.inventoryClientRest = inventoryClientRest;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("products.outbox.lag", lagSeconds, AtomicLong::get)
+                .description("Antigüedad del cambio de catálogo pendiente más antiguo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Drena los eventos listos, lote por lote, hasta vaciar la cola o encontrar un error,
+     * y actualiza la métrica de retraso.
+     */
+    @Scheduled(fixedDelayString = "${msvc.outbox.poll-interval:1s}")
+    public void relay() {
+
+        int delivered;
+        do {
+            delivered = relayBatch();
+        } while (delivered == batchSize);
+
+        lagSeconds.set(iProductOutboxRepository.getOldestPendingCreatedAt()
+                .map(oldest -> Math.max(0, Duration.between(oldest, Instant.now()).toSeconds()))
+                .orElse(0L));
+    }
+
+    /**
+     * @return la cantidad de eventos entregados; menos que el lote si alguno falló.
+     */
+    private int relayBatch() {
+
+        Instant claimedAt = Instant.now();
+        List<ProductOutboxEntity> events = transactionTemplate.execute(status -> {
+            if (!iProductOutboxRepository.tryLockRelay()) {
+                return List.<ProductOutboxEntity>of();
+            }
+            List<ProductOutboxEntity> batch = iProductOutboxRepository.lockNextBatch(batchSize);
+            if (!batch.isEmpty()) {
+                iProductOutboxRepository.claim(batch, claimedAt.plus(lease));
+            }
+            return batch;
+        });
+
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        ProductSyncResponse response;
+        try {
+            response = inventoryClientRest.syncProducts(events.stream()
+                    .map(event -> new ProductSyncRequest(event.getId(), event.getEventType(), event.getProductCode(),
+                            event.getPreviousProductCode(), event.getUnitPrice()))
+                    .toList());
+        } catch (RuntimeException e) {
+            ProductOutboxEntity head = events.get(0);
+            registerFailure(head, e.getMessage(), false);
+            transactionTemplate.executeWithoutResult(status -> {
+                iProductOutboxRepository.registerFailure(head);
+                if (events.size() > 1) {
+                    iProductOutboxRepository.claim(events.subList(1, events.size()), Instant.now());
+                }
+            });
+            return 0;
+        }
+
+        int applied = Math.max(0, Math.min(response.getApplied() == null ? 0 : response.getApplied(), events.size()));
+        List<ProductOutboxEntity> delivered = events.subList(0, applied);
+        ProductOutboxEntity failed = applied < events.size() ? events.get(applied) : null;
+        List<ProductOutboxEntity> pending = applied + 1 < events.size()
+                ? events.subList(applied + 1, events.size()) : List.of();
+
+        if (failed != null) {
+            registerFailure(failed, response.getError(), true);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                iProductOutboxRepository.deleteAll(delivered);
+            }
+            if (failed != null) {
+                iProductOutboxRepository.registerFailure(failed);
+            }
+            if (!pending.isEmpty()) {
+                iProductOutboxRepository.claim(pending, Instant.now());
+            }
+        });
+
+        return applied;
+    }
+
+    /**
+     * Programa el reintento de un evento con espera exponencial. Si msvc-inventory lo rechazó y
+     * agotó los intentos se descarta; mientras espera, los eventos posteriores no se entregan.
+     * Los cambios se guardan después en una transacción corta.
+     */
+    private void registerFailure(ProductOutboxEntity event, String message, boolean rejected) {
+
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(message == null || message.length() <= 1000 ? message : message.substring(0, 1000));
+
+        if (rejected && attempts >= maxAttempts) {
+            event.setNextAttemptAt(null);
+            return;
+        }
+
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        event.setNextAttemptAt(Instant.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff));
+    }
+}
@@ -2,9 +2,9 @@ package org.ebuitrago.smartorderaiproject.msvc.products.services;
 
 
 import lombok.RequiredArgsConstructor;
-import org.ebuitrago.smartorderaiproject.msvc.products.clientRest.InventoryClientRest;
 import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductEntity;
-import org.ebuitrago.smartorderaiproject.msvc.products.domain.dto.InventoryRequest;
+import org.ebuitrago.smartorderaiproject.msvc.products.domain.ProductOutboxEntity;
+import org.ebuitrago.smartorderaiproject.msvc.products.repositories.IProductOutboxRepository;
 import org.ebuitrago.smartorderaiproject.msvc.products.repositories.IProductRespository;
 import org.ebuitrago.smartorderaiproject.msvc.products.services.useCase.IProductUseCase;
 import org.springframework.stereotype.Service;
@@ -30,7 +30,7 @@ public class ProductServiceImpl implements IProductUseCase {
 
     private final IProductRespository iProductRespository;
 
-    private final InventoryClientRest  inventoryClientRest;
+    private final IProductOutboxRepository iProductOutboxRepository;
 
     /**
      * Obtiene la lista completa de productos.
@@ -82,7 +82,8 @@ public class ProductServiceImpl implements IProductUseCase {
 
     /**
      * Guarda un nuevo producto en la base de datos.
-     * <p>Operación transaccional de escritura.</p>
+     * <p>Operación transaccional de escritura. El alta en el inventario se registra en el
+     * outbox y la entrega {@link ProductOutboxRelay} en segundo plano.</p>
      */
     @Transactional
     @Override
@@ -90,9 +91,8 @@ public class ProductServiceImpl implements IProductUseCase {
 
         ProductEntity saved = iProductRespository.save(newProduct);
 
-        InventoryRequest inventoryRequest = new InventoryRequest(saved.getProductCode(),1, saved.getPrice());
-
-        inventoryClientRest.save(inventoryRequest);
+        iProductOutboxRepository.save(ProductOutboxEntity.of(
+                ProductOutboxEntity.PRODUCT_CREATED, saved.getProductCode(), null, saved.getPrice()));
 
         return saved;
     }
@@ -100,7 +100,7 @@ public class ProductServiceImpl implements IProductUseCase {
     /**
      * Actualiza un producto existente.
      * <p>Verifica la existencia y coherencia del código interno antes de actualizar.</p>
-     * Actualiza tambien el inventario de los productos llamando a InventoryClientRest
+     * El cambio de código y precio en el inventario se registra en el outbox.
      *
      * @throws RuntimeException si no existe el producto o los códigos no coinciden
      */
@@ -115,19 +115,16 @@ public class ProductServiceImpl implements IProductUseCase {
         }
 
         ProductEntity productEntity = productDb.get();
+        String previousProductCode = productEntity.getProductCode();
         productEntity.setProductName(updatedProduct.getProductName());
         productEntity.setProductCode(updatedProduct.getProductCode());
         productEntity.setPrice(updatedProduct.getPrice());
         productEntity.setImageUrl(updatedProduct.getImageUrl());
         productEntity.setDescription(updatedProduct.getDescription());
 
-        Integer productStock = inventoryClientRest.getStockByProductCode(productEntity.getProductCode());
-
-        InventoryRequest inventoryRequest = new InventoryRequest();
-        inventoryRequest.setProductCode(updatedProduct.getProductCode());
-        inventoryRequest.setInitialStock(productStock);
+        iProductOutboxRepository.save(ProductOutboxEntity.of(ProductOutboxEntity.PRODUCT_UPDATED,
+                productEntity.getProductCode(), previousProductCode, productEntity.getPrice()));
 
-        inventoryClientRest.save(inventoryRequest);
         return iProductRespository.save(productEntity);
     }
 
@@ -148,7 +145,8 @@ public class ProductServiceImpl implements IProductUseCase {
 
 
         iProductRespository.deleteById(productDb.get().getId());
-        inventoryClientRest.delete(productDb.get().getProductCode());
+        iProductOutboxRepository.save(ProductOutboxEntity.of(
+                ProductOutboxEntity.PRODUCT_DELETED, productDb.get().getProductCode(), null, null));
 
         return true;
     }